@@ -0,0 +1,113 @@
+package benchmark;
+
+import java.util.Arrays;
+
+//small JMH-like runner, every case is measured for every dataset size:
+//state is created per iteration, operation is repeated for iteration time, result is average time per operation
+//options: sizes=1000,10000 warmup=3 iterations=5 time=1000 (ms per iteration) filter=<case name part>
+public final class BenchmarkRunner {
+    //results go here, so JIT can't drop unused work
+    private static volatile int sink;
+    private final int[] sizes;
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final String filter;
+
+    private BenchmarkRunner(int[] sizes, int warmupIterations, int measurementIterations, long iterationMillis,
+                            String filter) {
+        this.sizes = sizes;
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.filter = filter;
+    }
+
+    public static BenchmarkRunner fromArgs(String[] args, int... defaultSizes) {
+        int[] sizes = defaultSizes;
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1_000;
+        String filter = "";
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Error: option " + arg + " is not name=value");
+            }
+            switch (option[0]) {
+                case "sizes" -> sizes = Arrays.stream(option[1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "warmup" -> warmup = Integer.parseInt(option[1]);
+                case "iterations" -> iterations = Integer.parseInt(option[1]);
+                case "time" -> time = Long.parseLong(option[1]);
+                case "filter" -> filter = option[1];
+                default -> throw new IllegalArgumentException("Error: unknown option " + option[0]);
+            }
+        }
+        return new BenchmarkRunner(sizes, warmup, iterations, time, filter);
+    }
+
+    public int[] sizes() {
+        return sizes.clone();
+    }
+
+    public boolean matches(String name) {
+        return name.contains(filter);
+    }
+
+    public void run(String name, Setup setup) throws Exception {
+        if (!matches(name)) {
+            return;
+        }
+        for (int size : sizes) {
+            for (int i = 0; i < warmupIterations; i++) {
+                iteration(setup, size);
+            }
+            double[] results = new double[measurementIterations];
+            for (int i = 0; i < measurementIterations; i++) {
+                results[i] = iteration(setup, size);
+            }
+            report(name, size, results);
+        }
+    }
+
+    private double iteration(Setup setup, int size) throws Exception {
+        Operation operation = setup.create(size);
+        long operations = 0;
+        int result = 0;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            result += operation.run();
+            operations++;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < iterationNanos);
+        sink += result;
+        operation.close();
+        return (double) elapsed / operations;
+    }
+
+    private static void report(String name, int size, double[] results) {
+        double mean = Arrays.stream(results).average().orElse(0);
+        double variance = Arrays.stream(results).map(result -> (result - mean) * (result - mean)).sum()
+                / Math.max(1, results.length - 1);
+        System.out.printf("%-40s %,10d %,14.1f +- %,10.1f ns/op%n", name, size, mean, Math.sqrt(variance));
+    }
+
+    public static void printHeader() {
+        System.out.printf("%-40s %10s %14s   %10s%n", "benchmark", "size", "avg", "stddev");
+    }
+
+    //creates fresh state with given number of tasks for one iteration
+    public interface Setup {
+        Operation create(int size) throws Exception;
+    }
+
+    //measured operation, returned value is consumed so work is not eliminated
+    public interface Operation {
+        int run() throws Exception;
+
+        //releases state after iteration
+        default void close() throws Exception {
+        }
+    }
+}
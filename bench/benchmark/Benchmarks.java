@@ -0,0 +1,16 @@
+package benchmark;
+
+//runs every suite with the same options, see BenchmarkRunner for them
+public class Benchmarks {
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromArgs(args, 1_000, 10_000, 100_000);
+        BenchmarkRunner.printHeader();
+        TaskManagerBenchmark.run(runner);
+        HistoryManagerBenchmark.run(runner);
+        PersistenceBenchmark.run(runner);
+        SerializationBenchmark.run(runner);
+        HttpBenchmark.run(runner);
+        RouterBenchmark.run(runner);
+        CompressionBenchmark.run(runner);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import com.yandex.app.http.JsonCodec;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+//cpu time of writing a /tasks response of size timed tasks as is and compressed the way handlers do it,
+//bytes each of them puts on the wire are printed before the timings
+public class CompressionBenchmark {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        run(BenchmarkRunner.fromArgs(args, 10, 100, 1_000, 10_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        if (runner.matches("compression")) {
+            System.out.printf("%-40s %10s %14s %14s %14s %14s%n", "compression bytes", "size", "identity",
+                    "gzip.level1", "gzip.level6", "deflate.level1");
+            for (int size : runner.sizes()) {
+                List<Task> tasks = tasks(size);
+                System.out.printf("%-40s %,10d %,14d %,14d %,14d %,14d%n", "compression.bytes", size,
+                        write(tasks, null, 0), write(tasks, "gzip", Deflater.BEST_SPEED),
+                        write(tasks, "gzip", Deflater.DEFAULT_COMPRESSION), write(tasks, "deflate", Deflater.BEST_SPEED));
+            }
+        }
+        BenchmarkRunner.printHeader();
+        runner.run("compression.identity", size -> operation(size, null, 0));
+        runner.run("compression.gzip.level1", size -> operation(size, "gzip", Deflater.BEST_SPEED));
+        runner.run("compression.gzip.level6", size -> operation(size, "gzip", Deflater.DEFAULT_COMPRESSION));
+        runner.run("compression.deflate.level1", size -> operation(size, "deflate", Deflater.BEST_SPEED));
+    }
+
+    private static BenchmarkRunner.Operation operation(int size, String encoding, int level) {
+        List<Task> tasks = tasks(size);
+        return () -> write(tasks, encoding, level);
+    }
+
+    //bytes written to the wire
+    private static int write(List<Task> tasks, String encoding, int level) throws IOException {
+        CountingStream wire = new CountingStream();
+        OutputStream out = wire;
+        Deflater deflater = null;
+        if ("gzip".equals(encoding)) {
+            out = new GZIPOutputStream(wire, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        } else if ("deflate".equals(encoding)) {
+            deflater = new Deflater(level);
+            out = new DeflaterOutputStream(wire, deflater, BUFFER_SIZE);
+        }
+        try {
+            JsonCodec.writeList(tasks, out);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return wire.count;
+    }
+
+    private static List<Task> tasks(int size) {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        Datasets.fill(taskManager, size, true);
+        return taskManager.getAllTasks();
+    }
+
+    private static class CountingStream extends OutputStream {
+        private int count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.ConcurrentHistoryManager;
+import com.yandex.app.service.ConcurrentTaskManager;
+import com.yandex.app.service.HistoryManager;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+import com.yandex.app.service.TaskManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+//throughput of ConcurrentTaskManager with threads mixing list reads and task updates,
+//then of threads only getting tasks by id with plain and concurrent history
+public class ConcurrentTaskManagerBenchmark {
+    private static final int TASKS = 1_000;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] writePercents = {0, 10, 50};
+        int[] threadCounts = {1, 2, 4, 8};
+        //warmup
+        run(4, 10, false, false);
+        for (int writePercent : writePercents) {
+            for (int threads : threadCounts) {
+                long ops = run(threads, writePercent, false, false);
+                System.out.printf("writes %2d%%, %d threads: %,d ops/s%n", writePercent, threads,
+                        ops * 1_000_000_000L / MEASURE_NANOS);
+            }
+        }
+        for (boolean concurrentHistory : new boolean[]{false, true}) {
+            for (int threads : threadCounts) {
+                long ops = run(threads, 0, true, concurrentHistory);
+                System.out.printf("views, %s history, %d threads: %,d ops/s%n",
+                        concurrentHistory ? "concurrent" : "plain", threads, ops * 1_000_000_000L / MEASURE_NANOS);
+            }
+        }
+    }
+
+    private static long run(int threads, int writePercent, boolean views, boolean concurrentHistory)
+            throws InterruptedException {
+        HistoryManager history = concurrentHistory
+                ? new ConcurrentHistoryManager(new InMemoryHistoryManager()) : new InMemoryHistoryManager();
+        TaskManager taskManager = new ConcurrentTaskManager(new InMemoryTaskManager(history));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            ids.add(taskManager.addTask(new Task("task" + i, "description")).getId());
+        }
+        LongAdder ops = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long end = System.nanoTime() + MEASURE_NANOS;
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            Thread thread = new Thread(() -> {
+                int i = seed;
+                while (System.nanoTime() < end) {
+                    i++;
+                    if (i % 100 < writePercent) {
+                        int id = ids.get(i % TASKS);
+                        taskManager.updateTask(new Task(id, "task" + id, "description", Status.IN_PROGRESS));
+                    } else if (views) {
+                        taskManager.getTaskById(ids.get(i % TASKS));
+                    } else {
+                        taskManager.getAllTasks();
+                    }
+                    ops.increment();
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        done.await();
+        return ops.sum();
+    }
+}
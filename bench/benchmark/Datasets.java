@@ -0,0 +1,37 @@
+package benchmark;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.TaskManager;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+//tasks shared by benchmark suites, timed tasks take 10 minutes of consecutive 15 minute slots
+final class Datasets {
+    static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private Datasets() {
+    }
+
+    static Task task(int slot, boolean timed) {
+        if (!timed) {
+            return new Task("task" + slot, "description");
+        }
+        return new Task("task" + slot, "description", Status.NEW, Duration.ofMinutes(10), slotStart(slot));
+    }
+
+    static ZonedDateTime slotStart(int slot) {
+        return START.plusMinutes(15L * slot);
+    }
+
+    //returns ids of added tasks
+    static int[] fill(TaskManager taskManager, int size, boolean timed) {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = taskManager.addTask(task(i, timed)).getId();
+        }
+        return ids;
+    }
+}
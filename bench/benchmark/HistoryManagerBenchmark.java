@@ -0,0 +1,78 @@
+package benchmark;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.BoundedHistoryManager;
+import com.yandex.app.service.HistoryManager;
+import com.yandex.app.service.InMemoryHistoryManager;
+
+import java.util.function.IntFunction;
+
+//history manager operations on history already holding size viewed tasks,
+//bounded history is as large as the unbounded one unless it is made to evict
+public class HistoryManagerBenchmark {
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.printHeader();
+        run(BenchmarkRunner.fromArgs(args, 1_000, 10_000, 100_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        run(runner, "historyManager", size -> new InMemoryHistoryManager());
+        run(runner, "boundedHistoryManager", BoundedHistoryManager::new);
+        //every view is a task not in history, so the eldest one is evicted
+        runner.run("boundedHistoryManager.addEvicting", size -> {
+            Task[] tasks = tasks(size * 2);
+            HistoryManager historyManager = history(new BoundedHistoryManager(size), tasks(size));
+            int[] i = {0};
+            return () -> {
+                Task task = tasks[i[0]++ % tasks.length];
+                historyManager.add(task);
+                return task.getId();
+            };
+        });
+    }
+
+    private static void run(BenchmarkRunner runner, String name, IntFunction<HistoryManager> factory) throws Exception {
+        //viewed task is already in history, so it is moved to the end
+        runner.run(name + ".add", size -> {
+            Task[] tasks = tasks(size);
+            HistoryManager historyManager = history(factory.apply(size), tasks);
+            int[] i = {0};
+            return () -> {
+                Task task = tasks[i[0]++ % size];
+                historyManager.add(task);
+                return task.getId();
+            };
+        });
+        runner.run(name + ".removeAndAdd", size -> {
+            Task[] tasks = tasks(size);
+            HistoryManager historyManager = history(factory.apply(size), tasks);
+            int[] i = {0};
+            return () -> {
+                Task task = tasks[i[0]++ % size];
+                historyManager.remove(task.getId());
+                historyManager.add(task);
+                return task.getId();
+            };
+        });
+        runner.run(name + ".getHistory", size -> {
+            HistoryManager historyManager = history(factory.apply(size), tasks(size));
+            return () -> historyManager.getHistory().size();
+        });
+    }
+
+    private static Task[] tasks(int size) {
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task(i + 1, "task" + i, "description", Status.NEW);
+        }
+        return tasks;
+    }
+
+    private static HistoryManager history(HistoryManager historyManager, Task[] tasks) {
+        for (Task task : tasks) {
+            historyManager.add(task);
+        }
+        return historyManager;
+    }
+}
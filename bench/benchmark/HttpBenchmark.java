@@ -0,0 +1,58 @@
+package benchmark;
+
+import com.yandex.app.enums.ServerExecutor;
+import com.yandex.app.http.HttpTaskServer;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+import com.yandex.app.utility.Managers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+//http round trips to HttpTaskServer on port 8080 holding size tasks, one client request at a time
+public class HttpBenchmark {
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.printHeader();
+        run(BenchmarkRunner.fromArgs(args, 100, 1_000, 10_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        HttpTaskServer.enableNoDelay();
+        runner.run("http.getAllTasks", size -> request(size, false, false));
+        runner.run("http.getTaskById", size -> request(size, true, false));
+        //poll of unchanged tasks answered 304 by the tag of the previous response
+        runner.run("http.getAllTasks.notModified", size -> request(size, false, true));
+    }
+
+    private static BenchmarkRunner.Operation request(int size, boolean byId, boolean conditional) {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        int[] ids = Datasets.fill(taskManager, size, true);
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrentTaskManager(taskManager),
+                ServerExecutor.FIXED_POOL);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        int[] i = {0};
+        String[] etag = {null};
+        return new BenchmarkRunner.Operation() {
+            @Override
+            public int run() throws Exception {
+                String path = byId ? "/tasks/" + ids[i[0]++ % size] : "/tasks";
+                HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:8080" + path)).GET();
+                if (conditional && etag[0] != null) {
+                    builder.header("If-None-Match", etag[0]);
+                }
+                HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+                etag[0] = response.headers().firstValue("ETag").orElse(null);
+                return response.body().length;
+            }
+
+            @Override
+            public void close() {
+                client.close();
+                server.stop();
+            }
+        };
+    }
+}
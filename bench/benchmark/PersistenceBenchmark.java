@@ -0,0 +1,94 @@
+package benchmark;
+
+import com.yandex.app.enums.FsyncPolicy;
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.FileBackedTaskManager;
+import com.yandex.app.service.PersistenceSettings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+//FileBackedTaskManager saving on change and loading, files are written to a temporary directory
+public class PersistenceBenchmark {
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.printHeader();
+        run(BenchmarkRunner.fromArgs(args, 1_000, 10_000, 100_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (boolean journal : new boolean[]{false, true}) {
+            for (FsyncPolicy policy : FsyncPolicy.values()) {
+                updateTask(runner, journal, policy, false);
+            }
+            //write is taken off the caller, so it only pays for snapshot taking or record building
+            updateTask(runner, journal, FsyncPolicy.PER_WRITE, true);
+        }
+        runner.run("fileBacked.loadFromFile", size -> {
+            Path dir = Files.createTempDirectory("bench");
+            Path file = snapshot(dir, size);
+            return new BenchmarkRunner.Operation() {
+                @Override
+                public int run() {
+                    FileBackedTaskManager taskManager = FileBackedTaskManager.loadFromFile(file);
+                    taskManager.close();
+                    return taskManager.getAllTasks().size();
+                }
+
+                @Override
+                public void close() throws Exception {
+                    delete(dir);
+                }
+            };
+        });
+    }
+
+    //snapshot mode rewrites the whole file, journal mode appends one record, either may wait for disk
+    private static void updateTask(BenchmarkRunner runner, boolean journal, FsyncPolicy policy, boolean async)
+            throws Exception {
+        String mode = (journal ? "journal" : "snapshot") + "." + policy + (async ? ".async" : "");
+        runner.run("fileBacked.updateTask." + mode, size -> {
+            Path dir = Files.createTempDirectory("bench");
+            Path file = snapshot(dir, size);
+            FileBackedTaskManager taskManager = FileBackedTaskManager.loadFromFile(file,
+                    new PersistenceSettings().setJournal(journal).setFsyncPolicy(policy).setAsyncWrites(async));
+            int[] ids = taskManager.getAllTasks().stream().mapToInt(Task::getId).toArray();
+            int[] i = {0};
+            return new BenchmarkRunner.Operation() {
+                @Override
+                public int run() {
+                    int slot = i[0]++ % size;
+                    return taskManager.updateTask(new Task(ids[slot], "task", "description", Status.IN_PROGRESS))
+                            .getId();
+                }
+
+                @Override
+                public void close() throws Exception {
+                    taskManager.close();
+                    delete(dir);
+                }
+            };
+        });
+    }
+
+    //journal is filled without rewriting the file on every add, reopening it writes the snapshot
+    private static Path snapshot(Path dir, int size) {
+        Path file = dir.resolve("tasks.csv");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true);
+        try (FileBackedTaskManager taskManager = FileBackedTaskManager.loadFromFile(file, settings)) {
+            Datasets.fill(taskManager, size, true);
+        }
+        FileBackedTaskManager.loadFromFile(file, settings).close();
+        return file;
+    }
+
+    private static void delete(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,37 @@
+package benchmark;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+//insert cost of timed tasks, every insert validates interception with already prioritised tasks
+public class PrioritisedInsertBenchmark {
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    public static void main(String[] args) {
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        //warmup
+        insert(sizes[0]);
+        for (int size : sizes) {
+            long nanos = insert(size);
+            System.out.printf("%,d tasks: %,d ms total, %,d ns/insert%n", size, nanos / 1_000_000, nanos / size);
+        }
+    }
+
+    //tasks are inserted in shuffled time slots, so neighbours have to be found in the whole index
+    private static long insert(int size) {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        long begin = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            long slot = (i * 7919L) % size;
+            taskManager.addTask(new Task("task" + i, "description", Status.NEW, Duration.ofMinutes(10),
+                    START.plusMinutes(slot * 15)));
+        }
+        return System.nanoTime() - begin;
+    }
+}
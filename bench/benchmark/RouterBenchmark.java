@@ -0,0 +1,86 @@
+package benchmark;
+
+import com.yandex.app.enums.Endpoint;
+import com.yandex.app.http.handler.Router;
+
+//routing of request paths with Router and with split and parseDouble as handlers did before,
+//size is number of different paths, one in eight has an id that is not a number
+public class RouterBenchmark {
+    private static final String[] METHODS = {"GET", "GET", "GET", "DELETE", "POST", "GET", "GET", "GET"};
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.printHeader();
+        run(BenchmarkRunner.fromArgs(args, 1_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        runner.run("router.route", size -> {
+            String[] paths = paths(size);
+            int[] i = {0};
+            return () -> {
+                int n = i[0]++ % paths.length;
+                long route = Router.route(paths[n], METHODS[n % METHODS.length]);
+                return Router.endpoint(route).ordinal() + Router.id(route);
+            };
+        });
+        runner.run("router.splitAndParseDouble", size -> {
+            String[] paths = paths(size);
+            int[] i = {0};
+            return () -> {
+                int n = i[0]++ % paths.length;
+                Endpoint endpoint = getEndpoint(paths[n], METHODS[n % METHODS.length]);
+                boolean withId = endpoint == Endpoint.GET || endpoint == Endpoint.DELETE
+                        || endpoint == Endpoint.GET_EPIC_SUBTASKS;
+                return endpoint.ordinal() + (withId ? Integer.parseInt(paths[n].split("/")[2]) : 0);
+            };
+        });
+    }
+
+    private static String[] paths(int size) {
+        String[] paths = new String[size];
+        for (int i = 0; i < size; i++) {
+            paths[i] = switch (i % 8) {
+                case 0 -> "/tasks";
+                case 5 -> "/epics/" + i + "/subtasks";
+                case 7 -> "/tasks/task" + i;
+                default -> "/tasks/" + i;
+            };
+        }
+        return paths;
+    }
+
+    //routing handlers used before Router
+    private static Endpoint getEndpoint(String requestPath, String requestMethod) {
+        String[] pathParts = requestPath.split("/");
+        if (requestMethod.equals("GET")) {
+            if (pathParts.length == 2) {
+                return Endpoint.GET_ALL;
+            }
+            if (pathParts.length == 3 && isNumeric(pathParts[2])) {
+                return Endpoint.GET;
+            }
+            if (pathParts.length == 4 && isNumeric(pathParts[2]) && pathParts[3].equals("subtasks")) {
+                return Endpoint.GET_EPIC_SUBTASKS;
+            }
+        }
+        if (requestMethod.equals("POST")) {
+            return Endpoint.POST;
+        }
+        if (requestMethod.equals("DELETE") && isNumeric(pathParts[2])) {
+            return Endpoint.DELETE;
+        }
+        return Endpoint.UNKNOWN;
+    }
+
+    private static boolean isNumeric(String strNum) {
+        if (strNum == null) {
+            return false;
+        }
+        try {
+            Double.parseDouble(strNum);
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        return true;
+    }
+}
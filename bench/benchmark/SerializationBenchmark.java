@@ -0,0 +1,85 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.yandex.app.http.JsonCodec;
+import com.yandex.app.http.adapter.DurationTypeAdapter;
+import com.yandex.app.http.adapter.LocalTimeTypeAdapter;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//json conversion with the Gson the http handlers use and with tasks converted by reflection as before
+public class SerializationBenchmark {
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.printHeader();
+        run(BenchmarkRunner.fromArgs(args, 1_000, 10_000, 100_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+                .registerTypeAdapter(ZonedDateTime.class, new LocalTimeTypeAdapter())
+                .create();
+        run(runner, "gson", JsonCodec.getGson());
+        run(runner, "gson.reflective", reflective);
+        //how list handlers write responses now and before
+        runner.run("codec.writeList.mixed", size -> {
+            List<Task> tasks = mixed(size);
+            return () -> {
+                JsonCodec.writeList(tasks, OutputStream.nullOutputStream());
+                return tasks.size();
+            };
+        });
+        runner.run("gson.reflective.toJsonBytes.mixed", size -> {
+            List<Task> tasks = mixed(size);
+            return () -> reflective.toJson(tasks).getBytes(StandardCharsets.UTF_8).length;
+        });
+    }
+
+    private static void run(BenchmarkRunner runner, String prefix, Gson gson) throws Exception {
+        runner.run(prefix + ".toJson.tasks", size -> {
+            List<Task> tasks = tasks(size);
+            return () -> gson.toJson(tasks).length();
+        });
+        runner.run(prefix + ".toJson.mixed", size -> {
+            List<Task> tasks = mixed(size);
+            return () -> gson.toJson(tasks).length();
+        });
+        runner.run(prefix + ".fromJson.task", size -> {
+            String json = gson.toJson(tasks(size).getFirst());
+            return () -> gson.fromJson(json, Task.class).getId();
+        });
+    }
+
+    private static List<Task> tasks(int size) {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        Datasets.fill(taskManager, size, true);
+        return taskManager.getAllTasks();
+    }
+
+    //tasks, epics and subtasks in one list as /prioritized and /history return them
+    private static List<Task> mixed(int size) {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+                case 0 -> taskManager.addTask(new Task("task" + i, "description"));
+                case 1 -> taskManager.addEpic(new Epic("epic" + i, "description"));
+                default -> taskManager.addSubtask(new Subtask("subtask" + i, "description", i));
+            }
+        }
+        List<Task> tasks = new ArrayList<>(taskManager.getAllTasks());
+        tasks.addAll(taskManager.getAllEpics());
+        tasks.addAll(taskManager.getAllSubtasks());
+        return tasks;
+    }
+}
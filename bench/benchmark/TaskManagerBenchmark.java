@@ -0,0 +1,125 @@
+package benchmark;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+import com.yandex.app.service.TaskPage;
+import com.yandex.app.service.TaskQuery;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+//InMemoryTaskManager operations on a manager already holding size tasks
+public class TaskManagerBenchmark {
+    private static final int PAGE = 50;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.printHeader();
+        run(BenchmarkRunner.fromArgs(args, 1_000, 10_000, 100_000));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (boolean timed : new boolean[]{false, true}) {
+            String suffix = timed ? ".timed" : "";
+            runner.run("taskManager.addTask" + suffix, size -> {
+                InMemoryTaskManager taskManager = manager();
+                Datasets.fill(taskManager, size, timed);
+                int[] slot = {size};
+                return () -> taskManager.addTask(Datasets.task(slot[0]++, timed)).getId();
+            });
+            //timed tasks switch between 5 and 10 minutes inside their own slot
+            runner.run("taskManager.updateTask" + suffix, size -> {
+                InMemoryTaskManager taskManager = manager();
+                int[] ids = Datasets.fill(taskManager, size, timed);
+                int[] i = {0};
+                return () -> {
+                    int slot = i[0]++ % size;
+                    Task task = timed
+                            ? new Task(ids[slot], "task", "description", Status.IN_PROGRESS,
+                            Duration.ofMinutes(5 + 5 * (i[0] / size % 2)), Datasets.slotStart(slot))
+                            : new Task(ids[slot], "task", "description", Status.IN_PROGRESS);
+                    return taskManager.updateTask(task).getId();
+                };
+            });
+            //deleted task is added back to its slot, so size stays the same
+            runner.run("taskManager.deleteAndAddTask" + suffix, size -> {
+                InMemoryTaskManager taskManager = manager();
+                int[] ids = Datasets.fill(taskManager, size, timed);
+                int[] i = {0};
+                return () -> {
+                    int slot = i[0]++ % size;
+                    taskManager.deleteTaskById(ids[slot]);
+                    ids[slot] = taskManager.addTask(Datasets.task(slot, timed)).getId();
+                    return ids[slot];
+                };
+            });
+        }
+        runner.run("taskManager.getPrioritisedTasks", size -> {
+            InMemoryTaskManager taskManager = manager();
+            Datasets.fill(taskManager, size, true);
+            return () -> taskManager.getPrioritisedTasks().size();
+        });
+        runner.run("taskManager.getAllTasks", size -> {
+            InMemoryTaskManager taskManager = manager();
+            Datasets.fill(taskManager, size, false);
+            return () -> taskManager.getAllTasks().size();
+        });
+        //page of 50 walks the index from a cursor, a whole walk is started over at the last page
+        runner.run("taskManager.findTasks.status", size -> {
+            InMemoryTaskManager taskManager = manager();
+            Datasets.fill(taskManager, size, true);
+            String[] cursor = {null};
+            return () -> {
+                TaskPage<Task> page = taskManager.findTasks(new TaskQuery(Status.NEW, null, null, null, cursor[0], PAGE));
+                cursor[0] = page.nextCursor();
+                return page.items().size();
+            };
+        });
+        runner.run("taskManager.findTasks.startTime", size -> {
+            InMemoryTaskManager taskManager = manager();
+            Datasets.fill(taskManager, size, true);
+            ZonedDateTime from = Datasets.slotStart(size / 2);
+            return () -> taskManager.findTasks(new TaskQuery(null, null, from, null, null, PAGE)).items().size();
+        });
+        //one task in a hundred is done, page of them costs its own size rather than the hundredfold range
+        runner.run("taskManager.findTasks.statusStartTime", size -> {
+            InMemoryTaskManager taskManager = manager();
+            Datasets.fill(taskManager, size, true);
+            for (Task task : taskManager.getAllTasks()) {
+                if (task.getId() % 100 == 0) {
+                    task.setStatus(Status.DONE);
+                    taskManager.updateTask(task);
+                }
+            }
+            ZonedDateTime from = Datasets.slotStart(0);
+            return () -> taskManager.findTasks(new TaskQuery(Status.DONE, null, from, null, null, PAGE)).items().size();
+        });
+        //every update recalculates status and time of an epic with size subtasks
+        runner.run("taskManager.updateSubtask", size -> {
+            InMemoryTaskManager taskManager = manager();
+            Epic epic = new Epic("epic", "description");
+            taskManager.addEpic(epic);
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                Subtask subtask = new Subtask("subtask", "description", epic.getId(), Status.NEW,
+                        Duration.ofMinutes(10), Datasets.slotStart(i));
+                taskManager.addSubtask(subtask);
+                ids[i] = subtask.getId();
+            }
+            int[] i = {0};
+            return () -> {
+                int slot = i[0]++ % size;
+                Status status = Status.values()[i[0] / size % Status.values().length];
+                return taskManager.updateSubtask(new Subtask(ids[slot], "subtask", "description", epic.getId(),
+                        status, Duration.ofMinutes(10), Datasets.slotStart(slot))).getId();
+            };
+        });
+    }
+
+    private static InMemoryTaskManager manager() {
+        return new InMemoryTaskManager(new InMemoryHistoryManager());
+    }
+}
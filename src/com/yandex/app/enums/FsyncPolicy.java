@@ -0,0 +1,5 @@
+package com.yandex.app.enums;
+
+public enum FsyncPolicy {
+    NONE, PER_WRITE, PERIODIC
+}
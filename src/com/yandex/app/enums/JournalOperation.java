@@ -0,0 +1,6 @@
+package com.yandex.app.enums;
+
+public enum JournalOperation {
+    //PUT_BINARY holds task as base64 binary snapshot of its own, it is written when snapshots are binary
+    PUT, DELETE, CLEAR, VIEW, PUT_BINARY
+}
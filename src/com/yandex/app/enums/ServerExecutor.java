@@ -0,0 +1,5 @@
+package com.yandex.app.enums;
+
+public enum ServerExecutor {
+    DISPATCHER, FIXED_POOL, WORK_STEALING, VIRTUAL_THREADS
+}
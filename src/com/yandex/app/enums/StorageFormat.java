@@ -0,0 +1,5 @@
+package com.yandex.app.enums;
+
+public enum StorageFormat {
+    CSV, BINARY
+}
@@ -4,4 +4,8 @@ public class ManagerSaveException extends RuntimeException {
     public ManagerSaveException(Exception e) {
         super(e);
     }
+
+    public ManagerSaveException(String message) {
+        super(message);
+    }
 }
\ No newline at end of file
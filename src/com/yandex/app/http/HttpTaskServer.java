@@ -1,25 +1,62 @@
 package com.yandex.app.http;
 
 import com.sun.net.httpserver.HttpServer;
+import com.yandex.app.enums.ServerExecutor;
 import com.yandex.app.exception.ServerRunException;
 import com.yandex.app.http.handler.*;
+import com.yandex.app.service.FileBackedTaskManager;
 import com.yandex.app.service.TaskManager;
 import com.yandex.app.utility.Managers;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     private HttpServer server;
+    private ExecutorService executor;
     private final TaskManager taskManager;
+    private final ServerExecutor serverExecutor;
+    private final int threads;
 
-    public HttpTaskServer(TaskManager manager) {
+    //manager has to be thread-safe unless requests are handled on dispatcher thread
+    public HttpTaskServer(TaskManager manager, ServerExecutor serverExecutor, int threads) {
         taskManager = manager;
+        this.serverExecutor = serverExecutor;
+        this.threads = threads;
+    }
+
+    public HttpTaskServer(TaskManager manager, ServerExecutor serverExecutor) {
+        this(manager, serverExecutor, Runtime.getRuntime().availableProcessors());
+    }
+
+    //requests are handled one at a time on dispatcher thread, so any manager may be given
+    public HttpTaskServer(TaskManager manager) {
+        this(manager, ServerExecutor.DISPATCHER);
     }
 
     public static void main(String[] args) {
-        HttpTaskServer taskServer = new HttpTaskServer(Managers.getFileBackendTaskManager());
+        enableNoDelay();
+        FileBackedTaskManager manager = Managers.getFileBackendTaskManager();
+        HttpTaskServer taskServer = new HttpTaskServer(Managers.getConcurrentTaskManager(manager),
+                ServerExecutor.VIRTUAL_THREADS);
         taskServer.start();
+        //persist what is still kept in memory
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            taskServer.stop();
+            manager.close();
+        }));
+    }
+
+    //lists are streamed in chunks much smaller than loopback segment, with Nagle's algorithm on every chunk
+    //after the first waited for delayed ack. The property is JVM-wide and read once when the first server
+    //in the JVM is created, so it is set by the launching code before that, or passed as
+    //-Dsun.net.httpserver.nodelay=true, which is kept as given
+    public static void enableNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
     }
 
     public void start() {
@@ -30,15 +67,30 @@ public class HttpTaskServer {
             server.createContext("/epics", new EpicsHandler(taskManager));
             server.createContext("/history", new HistoryHandler(taskManager));
             server.createContext("/prioritized", new PrioritizedHandler(taskManager));
+            executor = createExecutor();
+            server.setExecutor(executor);
             server.start();
         } catch (IOException e) {
             throw new ServerRunException(e.getMessage());
         }
     }
 
+    //null executor makes server handle requests on its dispatcher thread
+    private ExecutorService createExecutor() {
+        return switch (serverExecutor) {
+            case DISPATCHER -> null;
+            case FIXED_POOL -> Executors.newFixedThreadPool(threads);
+            case WORK_STEALING -> Executors.newWorkStealingPool(threads);
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+
     public void stop() {
         if (server != null) {
             server.stop(0);
         }
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.yandex.app.http;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.app.http.adapter.DurationTypeAdapter;
+import com.yandex.app.http.adapter.EpicTypeAdapter;
+import com.yandex.app.http.adapter.LocalTimeTypeAdapter;
+import com.yandex.app.http.adapter.SubtaskTypeAdapter;
+import com.yandex.app.http.adapter.TaskTypeAdapter;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+//one Gson for all handlers, Gson is thread-safe and caches adapters, so it is built once.
+//Tasks are converted by hand-written adapters instead of reflection
+public final class JsonCodec {
+    //bytes collected before they are written to the stream
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .registerTypeAdapter(ZonedDateTime.class, new LocalTimeTypeAdapter())
+            .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskTypeAdapter())
+            .registerTypeAdapter(Epic.class, new EpicTypeAdapter())
+            .create();
+
+    private JsonCodec() {
+    }
+
+    public static Gson getGson() {
+        return GSON;
+    }
+
+    //list is written element by element to out, which is closed afterwards;
+    //elements get the same runtime type adapter gson.toJson(list) picks for them
+    @SuppressWarnings("unchecked")
+    public static void writeList(List<?> items, OutputStream out) throws IOException {
+        try (JsonWriter writer = GSON.newJsonWriter(new Utf8Writer(out, BUFFER_SIZE))) {
+            writer.beginArray();
+            Class<?> type = null;
+            TypeAdapter<Object> adapter = null;
+            for (Object item : items) {
+                if (item.getClass() != type) {
+                    type = item.getClass();
+                    adapter = GSON.getAdapter((Class<Object>) type);
+                }
+                adapter.write(writer, item);
+            }
+            writer.endArray();
+        }
+    }
+}
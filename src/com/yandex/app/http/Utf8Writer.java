@@ -0,0 +1,101 @@
+package com.yandex.app.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+//writer encoding chars to utf-8 straight into a byte buffer that is written out when full.
+//JsonWriter makes a write for every name, value and comma, BufferedWriter and StringWriter take a lock
+//on each of them and OutputStreamWriter runs charset encoder on each, which cost more than json itself.
+//Not thread-safe, surrogates without a pair are written as '?' like OutputStreamWriter does
+class Utf8Writer extends Writer {
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+    //high surrogate waiting for its pair, 0 if none
+    private char highSurrogate;
+
+    Utf8Writer(OutputStream out, int bufferSize) {
+        this.out = out;
+        buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        put((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            put(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            put(str.charAt(i));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            put('?');
+        }
+        flushBuffer();
+        out.close();
+    }
+
+    private void put(char c) throws IOException {
+        if (position + 4 > buffer.length) {
+            flushBuffer();
+        }
+        if (c < 0x80 && highSurrogate == 0) {
+            buffer[position++] = (byte) c;
+            return;
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+                return;
+            }
+            buffer[position++] = '?';
+            put(c);
+            return;
+        }
+        if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | c >> 6);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | c >> 12);
+            buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.yandex.app.http.adapter;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.utility.IntHashSet;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+//task fields written and read without reflection, json is the same gson reflection gave:
+//fields of subclass first, then fields of Task, null fields are left out.
+//Fields missing from json keep defaults of task constructors, unknown fields are skipped
+abstract class BaseTaskTypeAdapter<T extends Task> extends TypeAdapter<T> {
+    private final DurationTypeAdapter durationAdapter = new DurationTypeAdapter();
+    private final LocalTimeTypeAdapter timeAdapter = new LocalTimeTypeAdapter();
+
+    //values read from json before task is created, adapters are shared by threads so they keep no state
+    static class Fields {
+        String name;
+        String description;
+        int id;
+        Status status = Status.NEW;
+        Duration duration = Duration.ZERO;
+        ZonedDateTime startTime;
+        int epicId;
+        IntHashSet subtaskIds;
+        ZonedDateTime endTime;
+    }
+
+    abstract void writeOwnFields(JsonWriter jsonWriter, T task) throws IOException;
+
+    //false if name is not a field of subclass
+    abstract boolean readOwnField(JsonReader jsonReader, String name, Fields fields) throws IOException;
+
+    abstract T create(Fields fields);
+
+    @Override
+    public void write(final JsonWriter jsonWriter, final T task) throws IOException {
+        if (task == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        writeOwnFields(jsonWriter, task);
+        writeString(jsonWriter, "name", task.getName());
+        writeString(jsonWriter, "description", task.getDescription());
+        jsonWriter.name("id").value(task.getId());
+        if (task.getStatus() != null) {
+            jsonWriter.name("status").value(task.getStatus().name());
+        }
+        if (task.getDuration() != null) {
+            jsonWriter.name("duration");
+            durationAdapter.write(jsonWriter, task.getDuration());
+        }
+        writeTime(jsonWriter, "startTime", task.getStartTime());
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public T read(final JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL || !readField(jsonReader, name, fields)) {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return create(fields);
+    }
+
+    //unknown status, number out of int range or bad time is a bad json, not a server error
+    private boolean readField(JsonReader jsonReader, String name, Fields fields) throws IOException {
+        try {
+            return readTaskField(jsonReader, name, fields) || readOwnField(jsonReader, name, fields);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new JsonParseException("Error: bad value of field " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private boolean readTaskField(JsonReader jsonReader, String name, Fields fields) throws IOException {
+        switch (name) {
+            case "name" -> fields.name = jsonReader.nextString();
+            case "description" -> fields.description = jsonReader.nextString();
+            case "id" -> fields.id = jsonReader.nextInt();
+            case "status" -> fields.status = Status.valueOf(jsonReader.nextString());
+            case "duration" -> fields.duration = durationAdapter.read(jsonReader);
+            case "startTime" -> fields.startTime = timeAdapter.read(jsonReader);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeString(JsonWriter jsonWriter, String name, String value) throws IOException {
+        if (value != null) {
+            jsonWriter.name(name).value(value);
+        }
+    }
+
+    void writeTime(JsonWriter jsonWriter, String name, ZonedDateTime value) throws IOException {
+        if (value != null) {
+            jsonWriter.name(name);
+            timeAdapter.write(jsonWriter, value);
+        }
+    }
+
+    ZonedDateTime readTime(JsonReader jsonReader) throws IOException {
+        return timeAdapter.read(jsonReader);
+    }
+}
@@ -0,0 +1,45 @@
+package com.yandex.app.http.adapter;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.app.model.Epic;
+import com.yandex.app.utility.IntHashSet;
+
+import java.io.IOException;
+
+public class EpicTypeAdapter extends BaseTaskTypeAdapter<Epic> {
+    private final IntSetTypeAdapter idsAdapter = new IntSetTypeAdapter();
+
+    @Override
+    void writeOwnFields(JsonWriter jsonWriter, Epic epic) throws IOException {
+        jsonWriter.name("subtaskIds");
+        idsAdapter.write(jsonWriter, (IntHashSet) epic.getSubtaskIds());
+        writeTime(jsonWriter, "endTime", epic.getEndTime());
+    }
+
+    @Override
+    boolean readOwnField(JsonReader jsonReader, String name, Fields fields) throws IOException {
+        switch (name) {
+            case "subtaskIds" -> fields.subtaskIds = idsAdapter.read(jsonReader);
+            case "endTime" -> fields.endTime = readTime(jsonReader);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //end time has no setter, it is set together with start time when both are given
+    @Override
+    Epic create(Fields fields) {
+        Epic epic = new Epic(fields.id, fields.name, fields.description, fields.status, fields.duration,
+                fields.startTime);
+        if (fields.subtaskIds != null) {
+            fields.subtaskIds.forEach(epic::addSubtaskId);
+        }
+        if (fields.startTime != null && fields.endTime != null) {
+            epic.calculateTime(fields.startTime, fields.endTime);
+        }
+        return epic;
+    }
+}
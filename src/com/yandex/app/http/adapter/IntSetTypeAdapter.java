@@ -0,0 +1,43 @@
+package com.yandex.app.http.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.app.utility.IntHashSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+//int set is written as sorted json array, same as list of ids before
+public class IntSetTypeAdapter extends TypeAdapter<IntHashSet> {
+    @Override
+    public void write(final JsonWriter jsonWriter, final IntHashSet set) throws IOException {
+        if (set == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        jsonWriter.beginArray();
+        for (int value : values) {
+            jsonWriter.value(value);
+        }
+        jsonWriter.endArray();
+    }
+
+    @Override
+    public IntHashSet read(final JsonReader jsonReader) throws IOException {
+        IntHashSet set = new IntHashSet();
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return set;
+        }
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            set.add(jsonReader.nextInt());
+        }
+        jsonReader.endArray();
+        return set;
+    }
+}
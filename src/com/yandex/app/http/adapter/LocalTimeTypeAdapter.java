@@ -5,6 +5,7 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -15,11 +16,63 @@ public class LocalTimeTypeAdapter extends TypeAdapter<ZonedDateTime> {
         if (localDate == null) {
             jsonWriter.nullValue();
         } else
-            jsonWriter.value(localDate.format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+            jsonWriter.value(format(localDate));
     }
 
     @Override
     public ZonedDateTime read(final JsonReader jsonReader) throws IOException {
         return ZonedDateTime.parse(jsonReader.nextString(), DateTimeFormatter.ISO_ZONED_DATE_TIME);
     }
-}
\ No newline at end of file
+
+    //same text as ISO_ZONED_DATE_TIME gives, built by hand as formatter took most of the time of writing a task.
+    //Seconds are always written, fraction only when non-zero and without trailing zeros,
+    //zone in brackets only when it is a region, years outside 0-9999 go to the formatter
+    static String format(ZonedDateTime time) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            return time.format(DateTimeFormatter.ISO_ZONED_DATE_TIME);
+        }
+        StringBuilder sb = new StringBuilder(48);
+        appendDigits(sb, year, 4);
+        sb.append('-');
+        appendDigits(sb, time.getMonthValue(), 2);
+        sb.append('-');
+        appendDigits(sb, time.getDayOfMonth(), 2);
+        sb.append('T');
+        appendDigits(sb, time.getHour(), 2);
+        sb.append(':');
+        appendDigits(sb, time.getMinute(), 2);
+        sb.append(':');
+        appendDigits(sb, time.getSecond(), 2);
+        int nano = time.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            sb.append('.');
+            appendDigits(sb, nano, digits);
+        }
+        sb.append(time.getOffset().getId());
+        if (!(time.getZone() instanceof ZoneOffset)) {
+            sb.append('[').append(time.getZone().getId()).append(']');
+        }
+        return sb.toString();
+    }
+
+    //value padded with leading zeros to width digits
+    private static void appendDigits(StringBuilder sb, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            sb.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
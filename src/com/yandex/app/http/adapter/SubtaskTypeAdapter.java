@@ -0,0 +1,29 @@
+package com.yandex.app.http.adapter;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.app.model.Subtask;
+
+import java.io.IOException;
+
+public class SubtaskTypeAdapter extends BaseTaskTypeAdapter<Subtask> {
+    @Override
+    void writeOwnFields(JsonWriter jsonWriter, Subtask subtask) throws IOException {
+        jsonWriter.name("epicId").value(subtask.getEpicId());
+    }
+
+    @Override
+    boolean readOwnField(JsonReader jsonReader, String name, Fields fields) throws IOException {
+        if (!name.equals("epicId")) {
+            return false;
+        }
+        fields.epicId = jsonReader.nextInt();
+        return true;
+    }
+
+    @Override
+    Subtask create(Fields fields) {
+        return new Subtask(fields.id, fields.name, fields.description, fields.epicId, fields.status,
+                fields.duration, fields.startTime);
+    }
+}
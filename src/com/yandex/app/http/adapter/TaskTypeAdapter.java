@@ -0,0 +1,21 @@
+package com.yandex.app.http.adapter;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.app.model.Task;
+
+public class TaskTypeAdapter extends BaseTaskTypeAdapter<Task> {
+    @Override
+    void writeOwnFields(JsonWriter jsonWriter, Task task) {
+    }
+
+    @Override
+    boolean readOwnField(JsonReader jsonReader, String name, Fields fields) {
+        return false;
+    }
+
+    @Override
+    Task create(Fields fields) {
+        return new Task(fields.id, fields.name, fields.description, fields.status, fields.duration, fields.startTime);
+    }
+}
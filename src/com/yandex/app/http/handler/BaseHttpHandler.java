@@ -1,24 +1,30 @@
 package com.yandex.app.http.handler;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
-import com.yandex.app.enums.Endpoint;
-import com.yandex.app.http.adapter.DurationTypeAdapter;
-import com.yandex.app.http.adapter.LocalTimeTypeAdapter;
+import com.yandex.app.enums.Status;
+import com.yandex.app.http.JsonCodec;
+import com.yandex.app.service.TaskPage;
+import com.yandex.app.service.TaskQuery;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class BaseHttpHandler {
+    private static final Set<String> QUERY_PARAMS = Set.of("status", "epicId", "from", "to", "limit", "cursor");
+    //versions start over with the server, so tags carry its start time and tags of earlier runs never match
+    private static final String ETAG_PREFIX = Long.toString(System.currentTimeMillis(), 36) + "-";
 
     public BaseHttpHandler() {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(Duration.class, new DurationTypeAdapter());
-        gsonBuilder.registerTypeAdapter(ZonedDateTime.class, new LocalTimeTypeAdapter());
-        gson = gsonBuilder.create();
+        gson = JsonCodec.getGson();
     }
 
     protected Gson gson;
@@ -27,6 +33,56 @@ public class BaseHttpHandler {
         sendResponse(h,200, text);
     }
 
+    //list is written element by element to response body with chunked transfer and compressed on the way
+    //if client accepts it, so no json string or byte copy of the whole list is built
+    protected void sendJsonList(HttpExchange h, List<?> items) throws IOException {
+        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        JsonCodec.writeList(items, new CompressingResponseStream(h, 200));
+        h.close();
+    }
+
+    //page is sent as list, X-Next-Cursor header holds cursor of the next page if there is one
+    protected void sendPage(HttpExchange h, TaskPage<?> page) throws IOException {
+        if (page.nextCursor() != null) {
+            h.getResponseHeaders().add("X-Next-Cursor", page.nextCursor());
+        }
+        sendJsonList(h, page.items());
+    }
+
+    //sets ETag of version and answers 304 without body if request already has it in If-None-Match.
+    //Version has to be read before the data it tags, so a change made in between only makes the tag older.
+    //Tags are weak, as the same version may be sent in other encoding
+    protected boolean notModified(HttpExchange h, long version) throws IOException {
+        String tag = "\"" + ETAG_PREFIX + version + "\"";
+        h.getResponseHeaders().set("ETag", "W/" + tag);
+        h.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String ifNoneMatch = h.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matches(ifNoneMatch, tag)) {
+            return false;
+        }
+        h.sendResponseHeaders(304, -1);
+        h.close();
+        return true;
+    }
+
+    //If-None-Match is "*" or list of tags, compared without W/ prefix
+    private static boolean matches(String ifNoneMatch, String tag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void sendBadRequest(HttpExchange h, String text) throws IOException {
+        sendResponse(h,400, text);
+    }
+
     protected void sendNotFound(HttpExchange h, String text) throws IOException {
         sendResponse(h,404, text);
     }
@@ -51,46 +107,69 @@ public class BaseHttpHandler {
     private void sendResponse(HttpExchange h, int code, String text) throws IOException {
         byte[] resp = text.getBytes(StandardCharsets.UTF_8);
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(code, resp.length);
-        h.getResponseBody().write(resp);
+        try (OutputStream body = new CompressingResponseStream(h, code)) {
+            body.write(resp);
+        }
         h.close();
     }
 
-    protected boolean isNumeric(String strNum) {
-        if (strNum == null) {
-            return false;
+    //query parameters by name, later value wins for repeated names
+    protected Map<String, String> getQueryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
         }
-        try {
-            Double.parseDouble(strNum);
-        } catch (NumberFormatException nfe) {
-            return false;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
         }
-        return true;
+        return params;
     }
 
-    protected Endpoint getEndpoint(String requestPath, String requestMethod) {
-        String[] pathParts = requestPath.split("/");
-        if (requestMethod.equals("GET")) {
-            if (pathParts.length == 2) {
-                return Endpoint.GET_ALL;
-            }
-            if (pathParts.length == 3 && isNumeric(pathParts[2])) {
-                return Endpoint.GET;
-            }
-            if (pathParts.length == 4 && isNumeric(pathParts[2]) && pathParts[3].equals("subtasks")) {
-                return Endpoint.GET_EPIC_SUBTASKS;
-            }
+    //?status=&epicId=&from=&to=&limit=&cursor= of list request, null if request has none of them,
+    //IllegalArgumentException if any value is bad
+    protected TaskQuery getTaskQuery(HttpExchange exchange) {
+        Map<String, String> params = getQueryParams(exchange);
+        if (params.keySet().stream().noneMatch(QUERY_PARAMS::contains)) {
+            return null;
         }
-        if (requestMethod.equals("POST")) {
-            return Endpoint.POST;
+        String status = params.get("status");
+        String epicId = params.get("epicId");
+        String limit = params.get("limit");
+        return new TaskQuery(status == null ? null : parseQueryStatus(status),
+                epicId == null ? null : parseQueryInt("epicId", epicId),
+                parseQueryTime("from", params.get("from")), parseQueryTime("to", params.get("to")),
+                params.get("cursor"), limit == null ? Integer.MAX_VALUE : parseQueryInt("limit", limit));
+    }
+
+    private Status parseQueryStatus(String value) {
+        try {
+            return Status.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: status has to be one of NEW, IN_PROGRESS, DONE, got " + value);
         }
-        if (requestMethod.equals("DELETE") && isNumeric(pathParts[2])) {
-            return Endpoint.DELETE;
+    }
+
+    private int parseQueryInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Error: " + name + " has to be an integer, got " + value);
         }
-        return Endpoint.UNKNOWN;
     }
 
-    protected int getTaskId(HttpExchange exchange) {
-        return Integer.parseInt(exchange.getRequestURI().getPath().split("/")[2]);
+    //unencoded '+' of the offset is decoded to space, so it is taken back
+    private ZonedDateTime parseQueryTime(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.replace(' ', '+'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Error: " + name + " has to be ISO zoned date time, got " + value);
+        }
     }
-}
\ No newline at end of file
+}
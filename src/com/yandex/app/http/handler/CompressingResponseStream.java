@@ -0,0 +1,147 @@
+package com.yandex.app.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+//response body sent with the encoding client accepts once it grows past THRESHOLD.
+//Body is held until it passes the threshold: smaller one is sent as is with its length, as compressing it
+//saves less than it costs, larger one is sent chunked and compressed while it is written.
+//Headers are sent on first write past the threshold or on close, not thread-safe
+class CompressingResponseStream extends OutputStream {
+    //about one tcp segment, gzip header and trailer alone take 18 bytes
+    static final int THRESHOLD = 1024;
+    //json of tasks repeats names and descriptions, fastest level already takes most of it, see CompressionBenchmark
+    static final int LEVEL = Deflater.BEST_SPEED;
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private final HttpExchange exchange;
+    private final int code;
+    private final String encoding;
+    private byte[] pending = new byte[THRESHOLD];
+    private int pendingLength;
+    //null until headers are sent
+    private OutputStream out;
+    private Deflater deflater;
+
+    CompressingResponseStream(HttpExchange exchange, int code) {
+        this.exchange = exchange;
+        this.code = code;
+        encoding = negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (out == null) {
+            if (pendingLength < THRESHOLD) {
+                pending[pendingLength++] = (byte) b;
+                return;
+            }
+            start();
+        }
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null) {
+            if (pendingLength + len <= THRESHOLD) {
+                System.arraycopy(b, off, pending, pendingLength, len);
+                pendingLength += len;
+                return;
+            }
+            start();
+        }
+        out.write(b, off, len);
+    }
+
+    //body below the threshold is not sent before close
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            exchange.sendResponseHeaders(code, pendingLength == 0 ? -1 : pendingLength);
+            OutputStream body = exchange.getResponseBody();
+            body.write(pending, 0, pendingLength);
+            body.close();
+            return;
+        }
+        try {
+            out.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void start() throws IOException {
+        OutputStream body = exchange.getResponseBody();
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(code, 0);
+        if (encoding == null) {
+            out = body;
+        } else if (encoding.equals("gzip")) {
+            out = new GZIPOutputStream(body, BUFFER_SIZE) {
+                {
+                    def.setLevel(LEVEL);
+                }
+            };
+        } else {
+            deflater = new Deflater(LEVEL);
+            out = new DeflaterOutputStream(body, deflater, BUFFER_SIZE);
+        }
+        out.write(pending, 0, pendingLength);
+        pending = null;
+    }
+
+    //gzip or deflate, whichever has higher q in Accept-Encoding, gzip on a tie, null if client accepts neither
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (params[0].trim().toLowerCase(Locale.ROOT)) {
+                case "gzip", "x-gzip" -> gzip = q;
+                case "deflate" -> deflate = q;
+                case "*" -> any = q;
+                default -> {
+                }
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? "gzip" : "deflate";
+    }
+}
@@ -1,52 +1,57 @@
 package com.yandex.app.http.handler;
 
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.yandex.app.enums.Endpoint;
+import com.yandex.app.enums.Type;
 import com.yandex.app.exception.NotFoundException;
 import com.yandex.app.exception.ValidationException;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
 import com.yandex.app.service.TaskManager;
+import com.yandex.app.service.TaskPage;
+import com.yandex.app.service.TaskQuery;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
+public final class EpicsHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final Router router;
 
     public EpicsHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router = new Router((exchange, id) -> handleUnknown(exchange))
+                .on(Endpoint.GET, this::getEpic)
+                .on(Endpoint.GET_ALL, (exchange, id) -> getAllEpics(exchange))
+                .on(Endpoint.GET_EPIC_SUBTASKS, this::getEpicSubtasks)
+                .on(Endpoint.POST, (exchange, id) -> postEpic(exchange))
+                .on(Endpoint.DELETE, this::deleteEpic);
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        Endpoint endpoint = getEndpoint(exchange.getRequestURI().getPath(), exchange.getRequestMethod());
-        switch (endpoint) {
-            case GET -> getEpic(exchange);
-            case GET_ALL -> getAllEpics(exchange);
-            case GET_EPIC_SUBTASKS -> getEpicSubtasks(exchange);
-            case POST -> postEpic(exchange);
-            case DELETE -> deleteEpic(exchange);
-            case UNKNOWN -> handleUnknown(exchange);
-        }
+        router.dispatch(exchange);
     }
 
-    private void getEpicSubtasks(HttpExchange exchange) throws IOException {
-        int taskId = getTaskId(exchange);
+    private void getEpicSubtasks(HttpExchange exchange, int taskId) throws IOException {
         try {
+            //epic deleted with no subtasks changes epics only
+            long version = Math.max(taskManager.getVersion(Type.EPIC), taskManager.getVersion(Type.SUBTASK));
             List<Subtask> epicSubtasksById = taskManager.getEpicSubtasksById(taskId);
-            String reply = gson.toJson(epicSubtasksById);
-            sendText(exchange, reply);
+            if (notModified(exchange, version)) {
+                return;
+            }
+            sendJsonList(exchange, epicSubtasksById);
         } catch (NotFoundException e) {
             sendNotFound(exchange, e.getMessage());
         }
     }
 
-    private void deleteEpic(HttpExchange exchange) throws IOException {
-        int taskId = getTaskId(exchange);
+    private void deleteEpic(HttpExchange exchange, int taskId) throws IOException {
         try {
             taskManager.deleteEpicById(taskId);
             sendOK(exchange);
@@ -65,6 +70,8 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
                 taskManager.addEpic(epic);
             }
             sendCreated(exchange);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, e.getMessage());
         } catch (ValidationException e) {
             sendHasInteractions(exchange, e.getMessage());
         } catch (NotFoundException e) {
@@ -76,14 +83,34 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
         sendNotFound(exchange, "Error in path!");
     }
 
+    //all epics, or one page of them if request has list query parameters
     private void getAllEpics(HttpExchange exchange) throws IOException {
-        sendText(exchange, gson.toJson(taskManager.getAllEpics()));
+        TaskPage<Epic> page;
+        try {
+            TaskQuery query = getTaskQuery(exchange);
+            if (notModified(exchange, taskManager.getVersion(Type.EPIC))) {
+                return;
+            }
+            if (query == null) {
+                sendJsonList(exchange, taskManager.getAllEpics());
+                return;
+            }
+            page = taskManager.findEpics(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        sendPage(exchange, page);
     }
 
-    private void getEpic(HttpExchange exchange) throws IOException, NotFoundException {
-        int taskId = getTaskId(exchange);
+    private void getEpic(HttpExchange exchange, int taskId) throws IOException, NotFoundException {
         try {
+            //viewed even when not modified, version is read first
+            long version = taskManager.getVersion(taskId);
             Task taskById = taskManager.getEpicById(taskId);
+            if (notModified(exchange, version)) {
+                return;
+            }
             String reply = gson.toJson(taskById);
             sendText(exchange, reply);
         } catch (NotFoundException e) {
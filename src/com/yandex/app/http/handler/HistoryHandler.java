@@ -2,9 +2,11 @@ package com.yandex.app.http.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.yandex.app.service.HistoryPage;
 import com.yandex.app.service.TaskManager;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
@@ -13,10 +15,33 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
         this.taskManager = taskManager;
     }
 
+    //?offset=&limit= returns one page of history, X-Total-Count header tells history size
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         if (exchange.getRequestMethod().equals("GET")) {
-            sendText(exchange, gson.toJson(taskManager.getHistory()));
+            Map<String, String> params = getQueryParams(exchange);
+            if (!params.containsKey("offset") && !params.containsKey("limit")) {
+                sendJsonList(exchange, taskManager.getHistory());
+                return;
+            }
+            int offset = parseNonNegative(params.getOrDefault("offset", "0"));
+            int limit = parseNonNegative(params.getOrDefault("limit", String.valueOf(Integer.MAX_VALUE)));
+            if (offset < 0 || limit < 0) {
+                sendBadRequest(exchange, "Error: offset and limit have to be non-negative integers");
+                return;
+            }
+            HistoryPage page = taskManager.getHistoryPage(offset, limit);
+            exchange.getResponseHeaders().add("X-Total-Count", String.valueOf(page.total()));
+            sendJsonList(exchange, page.items());
         }
     }
-}
\ No newline at end of file
+
+    //-1 if value is not a non-negative int
+    private int parseNonNegative(String value) {
+        try {
+            return Math.max(Integer.parseInt(value), -1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
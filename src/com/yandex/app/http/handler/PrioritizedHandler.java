@@ -2,6 +2,7 @@ package com.yandex.app.http.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.yandex.app.enums.Type;
 import com.yandex.app.service.TaskManager;
 
 import java.io.IOException;
@@ -16,7 +17,12 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         if (exchange.getRequestMethod().equals("GET")) {
-            sendText(exchange, gson.toJson(taskManager.getPrioritisedTasks()));
+            //prioritised tasks change only with tasks and subtasks, versions come from one counter
+            long version = Math.max(taskManager.getVersion(Type.TASK), taskManager.getVersion(Type.SUBTASK));
+            if (notModified(exchange, version)) {
+                return;
+            }
+            sendJsonList(exchange, taskManager.getPrioritisedTasks());
         }
     }
 }
\ No newline at end of file
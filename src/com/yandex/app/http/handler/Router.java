@@ -0,0 +1,103 @@
+package com.yandex.app.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.yandex.app.enums.Endpoint;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+//routes requests of one context: /<context>[/<id>[/subtasks]], trailing slashes are ignored as split did.
+//Path is scanned once without splitting it, id has to be a non-negative int of digits only.
+//Endpoint and id are packed in one long, so routing a request allocates nothing
+public class Router {
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final String SUBTASKS = "subtasks";
+    //id of routes without one
+    public static final int NO_ID = -1;
+    private final Action[] actions = new Action[ENDPOINTS.length];
+
+    public interface Action {
+        void handle(HttpExchange exchange, int id) throws IOException;
+    }
+
+    //unknown handles endpoints that have no action
+    public Router(Action unknown) {
+        Arrays.fill(actions, unknown);
+    }
+
+    public Router on(Endpoint endpoint, Action action) {
+        actions[endpoint.ordinal()] = action;
+        return this;
+    }
+
+    public void dispatch(HttpExchange exchange) throws IOException {
+        long route = route(exchange.getRequestURI().getPath(), exchange.getRequestMethod());
+        actions[(int) route].handle(exchange, id(route));
+    }
+
+    public static Endpoint endpoint(long route) {
+        return ENDPOINTS[(int) route];
+    }
+
+    public static int id(long route) {
+        return (int) (route >> 32);
+    }
+
+    //endpoint ordinal in low half, id or NO_ID in high half
+    public static long route(String path, String method) {
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        //slash after context name
+        int idStart = path.indexOf('/', 1);
+        if (idStart < 0 || idStart >= end) {
+            return switch (method) {
+                case "GET" -> pack(Endpoint.GET_ALL, NO_ID);
+                case "POST" -> pack(Endpoint.POST, NO_ID);
+                default -> pack(Endpoint.UNKNOWN, NO_ID);
+            };
+        }
+        idStart++;
+        int idEnd = path.indexOf('/', idStart);
+        if (idEnd < 0 || idEnd > end) {
+            idEnd = end;
+        }
+        int id = parseId(path, idStart, idEnd);
+        boolean idOnly = idEnd == end;
+        boolean subtasks = !idOnly && end - idEnd - 1 == SUBTASKS.length()
+                && path.startsWith(SUBTASKS, idEnd + 1);
+        return switch (method) {
+            case "POST" -> pack(Endpoint.POST, id);
+            case "GET" -> id == NO_ID ? pack(Endpoint.UNKNOWN, NO_ID)
+                    : idOnly ? pack(Endpoint.GET, id)
+                    : subtasks ? pack(Endpoint.GET_EPIC_SUBTASKS, id)
+                    : pack(Endpoint.UNKNOWN, NO_ID);
+            case "DELETE" -> id != NO_ID && idOnly ? pack(Endpoint.DELETE, id) : pack(Endpoint.UNKNOWN, NO_ID);
+            default -> pack(Endpoint.UNKNOWN, NO_ID);
+        };
+    }
+
+    //NO_ID if text is empty, has anything but digits or does not fit int
+    private static int parseId(String path, int start, int end) {
+        if (start == end) {
+            return NO_ID;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_ID;
+            }
+            id = id * 10 + (c - '0');
+            if (id > Integer.MAX_VALUE) {
+                return NO_ID;
+            }
+        }
+        return (int) id;
+    }
+
+    private static long pack(Endpoint endpoint, int id) {
+        return (long) id << 32 | endpoint.ordinal();
+    }
+}
@@ -1,38 +1,40 @@
 package com.yandex.app.http.handler;
 
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.yandex.app.enums.Endpoint;
+import com.yandex.app.enums.Type;
 import com.yandex.app.exception.NotFoundException;
 import com.yandex.app.exception.ValidationException;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
 import com.yandex.app.service.TaskManager;
+import com.yandex.app.service.TaskPage;
+import com.yandex.app.service.TaskQuery;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
-public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
+public final class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final Router router;
 
     public SubtasksHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router = new Router((exchange, id) -> handleUnknown(exchange))
+                .on(Endpoint.GET, this::getSubtask)
+                .on(Endpoint.GET_ALL, (exchange, id) -> getAllSubtasks(exchange))
+                .on(Endpoint.POST, (exchange, id) -> postSubtask(exchange))
+                .on(Endpoint.DELETE, this::deleteSubtask);
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        Endpoint endpoint = getEndpoint(exchange.getRequestURI().getPath(), exchange.getRequestMethod());
-        switch (endpoint) {
-            case GET -> getSubtask(exchange);
-            case GET_ALL -> getAllSubtasks(exchange);
-            case POST -> postSubtask(exchange);
-            case DELETE -> deleteSubtask(exchange);
-            case UNKNOWN -> handleUnknown(exchange);
-        }
+        router.dispatch(exchange);
     }
 
-    private void deleteSubtask(HttpExchange exchange) throws IOException {
-        int taskId = getTaskId(exchange);
+    private void deleteSubtask(HttpExchange exchange, int taskId) throws IOException {
         try {
             taskManager.deleteSubtaskById(taskId);
             sendOK(exchange);
@@ -51,6 +53,8 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
                 taskManager.addSubtask(task);
             }
             sendCreated(exchange);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, e.getMessage());
         } catch (ValidationException e) {
             sendHasInteractions(exchange, e.getMessage());
         } catch (NotFoundException e) {
@@ -62,14 +66,41 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
         sendNotFound(exchange, "Error in path!");
     }
 
+    //all subtasks, or one page of them if request has list query parameters
     private void getAllSubtasks(HttpExchange exchange) throws IOException {
-        sendText(exchange, gson.toJson(taskManager.getAllSubtasks()));
+        TaskPage<Subtask> page;
+        try {
+            TaskQuery query = getTaskQuery(exchange);
+            //subtasks of an epic are also gone with the epic
+            long version = query != null && query.epicId() != null
+                    ? Math.max(taskManager.getVersion(Type.EPIC), taskManager.getVersion(Type.SUBTASK))
+                    : taskManager.getVersion(Type.SUBTASK);
+            if (notModified(exchange, version)) {
+                return;
+            }
+            if (query == null) {
+                sendJsonList(exchange, taskManager.getAllSubtasks());
+                return;
+            }
+            page = taskManager.findSubtasks(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        } catch (NotFoundException e) {
+            sendNotFound(exchange, e.getMessage());
+            return;
+        }
+        sendPage(exchange, page);
     }
 
-    private void getSubtask(HttpExchange exchange) throws IOException, NotFoundException {
-        int taskId = getTaskId(exchange);
+    private void getSubtask(HttpExchange exchange, int taskId) throws IOException, NotFoundException {
         try {
+            //viewed even when not modified, version is read first
+            long version = taskManager.getVersion(taskId);
             Task taskById = taskManager.getSubtaskById(taskId);
+            if (notModified(exchange, version)) {
+                return;
+            }
             String reply = gson.toJson(taskById);
             sendText(exchange, reply);
         } catch (NotFoundException e) {
@@ -1,37 +1,39 @@
 package com.yandex.app.http.handler;
 
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.yandex.app.enums.Endpoint;
+import com.yandex.app.enums.Type;
 import com.yandex.app.exception.NotFoundException;
 import com.yandex.app.exception.ValidationException;
 import com.yandex.app.model.Task;
 import com.yandex.app.service.TaskManager;
+import com.yandex.app.service.TaskPage;
+import com.yandex.app.service.TaskQuery;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
-public class TasksHandler extends BaseHttpHandler implements HttpHandler {
+public final class TasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final Router router;
 
     public TasksHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router = new Router((exchange, id) -> handleUnknown(exchange))
+                .on(Endpoint.GET, this::getTask)
+                .on(Endpoint.GET_ALL, (exchange, id) -> getAllTasks(exchange))
+                .on(Endpoint.POST, (exchange, id) -> postTask(exchange))
+                .on(Endpoint.DELETE, this::deleteTask);
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        Endpoint endpoint = getEndpoint(exchange.getRequestURI().getPath(), exchange.getRequestMethod());
-        switch (endpoint) {
-            case GET -> getTask(exchange);
-            case GET_ALL -> getAllTasks(exchange);
-            case POST -> postTask(exchange);
-            case DELETE -> deleteTask(exchange);
-            case UNKNOWN -> handleUnknown(exchange);
-        }
+        router.dispatch(exchange);
     }
 
-    private void deleteTask(HttpExchange exchange) throws IOException {
-        int taskId = getTaskId(exchange);
+    private void deleteTask(HttpExchange exchange, int taskId) throws IOException {
         try {
             taskManager.deleteTaskById(taskId);
             sendOK(exchange);
@@ -50,6 +52,8 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
                 taskManager.addTask(task);
             }
             sendCreated(exchange);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, e.getMessage());
         } catch (ValidationException e) {
             sendHasInteractions(exchange, e.getMessage());
         } catch (NotFoundException e) {
@@ -61,14 +65,34 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
         sendNotFound(exchange, "Error in path!");
     }
 
+    //all tasks, or one page of them if request has list query parameters
     private void getAllTasks(HttpExchange exchange) throws IOException {
-        sendText(exchange, gson.toJson(taskManager.getAllTasks()));
+        TaskPage<Task> page;
+        try {
+            TaskQuery query = getTaskQuery(exchange);
+            if (notModified(exchange, taskManager.getVersion(Type.TASK))) {
+                return;
+            }
+            if (query == null) {
+                sendJsonList(exchange, taskManager.getAllTasks());
+                return;
+            }
+            page = taskManager.findTasks(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        sendPage(exchange, page);
     }
 
-    private void getTask(HttpExchange exchange) throws IOException, NotFoundException {
-        int taskId = getTaskId(exchange);
+    private void getTask(HttpExchange exchange, int taskId) throws IOException, NotFoundException {
         try {
+            //viewed even when not modified, version is read first
+            long version = taskManager.getVersion(taskId);
             Task taskById = taskManager.getTaskById(taskId);
+            if (notModified(exchange, version)) {
+                return;
+            }
             String reply = gson.toJson(taskById);
             sendText(exchange, reply);
         } catch (NotFoundException e) {
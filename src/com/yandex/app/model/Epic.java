@@ -1,15 +1,19 @@
 package com.yandex.app.model;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.yandex.app.enums.Status;
 import com.yandex.app.enums.Type;
+import com.yandex.app.http.adapter.IntSetTypeAdapter;
+import com.yandex.app.utility.IntHashSet;
+import com.yandex.app.utility.IntSet;
 
 import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    //ids are kept unboxed, json still has them as array
+    @JsonAdapter(IntSetTypeAdapter.class)
+    private final IntHashSet subtaskIds = new IntHashSet();
     private ZonedDateTime endTime;
 
     public Epic(int id, String name, String description, Status status) {
@@ -41,7 +45,7 @@ public class Epic extends Task {
                 '}';
     }
 
-    public List<Integer> getSubtaskIds() {
+    public IntSet getSubtaskIds() {
         return subtaskIds;
     }
 
@@ -49,10 +53,14 @@ public class Epic extends Task {
         subtaskIds.add(id);
     }
 
-    public void removeSubtaskId(Integer id) {
+    public void removeSubtaskId(int id) {
         subtaskIds.remove(id);
     }
 
+    public void clearSubtaskIds() {
+        subtaskIds.clear();
+    }
+
     @Override
     public Type getType() {
         return Type.EPIC;
@@ -63,9 +71,10 @@ public class Epic extends Task {
         return endTime;
     }
 
+    //no start and end when no subtask has time
     public void calculateTime(ZonedDateTime start, ZonedDateTime end) {
         setStartTime(start);
         this.endTime = end;
-        setDuration(Duration.between(start, end));
+        setDuration(start == null ? Duration.ZERO : Duration.between(start, end));
     }
 }
@@ -0,0 +1,210 @@
+package com.yandex.app.service;
+
+import com.yandex.app.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+//history of at most capacity tasks, least recently viewed task is dropped to make room for a new one.
+//tasks are kept in preallocated slots linked by int arrays, free slots are linked the same way,
+//id to slot index is open addressing table of fixed size, so add and remove allocate nothing
+public class BoundedHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+    private final int capacity;
+    private final Task[] tasks;
+    //id every slot was added with, task id may be changed after it is viewed
+    private final int[] ids;
+    private final int[] prev;
+    private final int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeSlot;
+    private int size;
+    //linear probing by Fibonacci hash of id, table is at least twice as large as capacity
+    private final int[] indexIds;
+    private final int[] indexSlots;
+    private final int indexShift;
+
+    public BoundedHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Error: history capacity has to be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        tasks = new Task[capacity];
+        ids = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            next[slot] = slot + 1 < capacity ? slot + 1 : NONE;
+        }
+        int indexBits = 32 - Integer.numberOfLeadingZeros(capacity * 2 - 1);
+        indexIds = new int[1 << indexBits];
+        indexSlots = new int[1 << indexBits];
+        Arrays.fill(indexSlots, NONE);
+        indexShift = 32 - indexBits;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void add(Task task) {
+        int slot = findSlot(task.getId());
+        if (slot != NONE) {
+            unlink(slot);
+        } else {
+            if (size == capacity) {
+                int eldest = head;
+                removeFromIndex(ids[eldest]);
+                unlink(eldest);
+                release(eldest);
+            }
+            slot = freeSlot;
+            freeSlot = next[slot];
+            ids[slot] = task.getId();
+            putToIndex(task.getId(), slot);
+            size++;
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = removeFromIndex(id);
+        if (slot != NONE) {
+            unlink(slot);
+            release(slot);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        forEach(history::add);
+        return history;
+    }
+
+    //page is reached from the closer end of the list
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        int end = (int) Math.min((long) offset + limit, size);
+        if (offset >= end) {
+            return List.of();
+        }
+        Task[] page = new Task[end - offset];
+        if (offset < size - end) {
+            int slot = head;
+            for (int i = 0; i < offset; i++) {
+                slot = next[slot];
+            }
+            for (int i = 0; i < page.length; i++, slot = next[slot]) {
+                page[i] = tasks[slot];
+            }
+        } else {
+            int slot = tail;
+            for (int i = size - 1; i >= end; i--) {
+                slot = prev[slot];
+            }
+            for (int i = page.length - 1; i >= 0; i--, slot = prev[slot]) {
+                page[i] = tasks[slot];
+            }
+        }
+        return Arrays.asList(page);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            action.accept(tasks[slot]);
+        }
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail != NONE) {
+            next[tail] = slot;
+        } else {
+            head = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail = prev[slot];
+        }
+    }
+
+    private void release(int slot) {
+        tasks[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+    }
+
+    private int indexOf(int id) {
+        return (id * 0x9E3779B9) >>> indexShift;
+    }
+
+    private int findSlot(int id) {
+        int mask = indexSlots.length - 1;
+        for (int i = indexOf(id); indexSlots[i] != NONE; i = (i + 1) & mask) {
+            if (indexIds[i] == id) {
+                return indexSlots[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void putToIndex(int id, int slot) {
+        int mask = indexSlots.length - 1;
+        int i = indexOf(id);
+        while (indexSlots[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        indexIds[i] = id;
+        indexSlots[i] = slot;
+    }
+
+    //entries after removed one are shifted back, so probing never stops at a hole left by removal
+    private int removeFromIndex(int id) {
+        int mask = indexSlots.length - 1;
+        int i = indexOf(id);
+        while (indexSlots[i] != NONE && indexIds[i] != id) {
+            i = (i + 1) & mask;
+        }
+        int slot = indexSlots[i];
+        if (slot == NONE) {
+            return NONE;
+        }
+        int hole = i;
+        for (int j = (i + 1) & mask; indexSlots[j] != NONE; j = (j + 1) & mask) {
+            int home = indexOf(indexIds[j]);
+            //entry may move to the hole if hole lies between its home and its position
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                indexIds[hole] = indexIds[j];
+                indexSlots[hole] = indexSlots[j];
+                hole = j;
+            }
+        }
+        indexSlots[hole] = NONE;
+        return slot;
+    }
+}
@@ -0,0 +1,250 @@
+package com.yandex.app.service;
+
+import com.yandex.app.model.Task;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+//thread-safe history for views made in parallel: add only puts the view into one of striped ring buffers,
+//views are moved into the wrapped history in batches under a lock, on executor once a buffer is half full
+//or by the thread that finds its buffer full, so no view is dropped.
+//Reads and remove move pending views first. Views are stamped with nanoTime and each batch is applied
+//in stamp order, views made by different threads at nearly the same time may still land in either order
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int BUFFER_SIZE = 128;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+    private final HistoryManager history;
+    private final Executor executor;
+    private final Buffer[] buffers;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    //reused by every drain, only touched under drainLock
+    private final Task[] batchTasks;
+    private final long[] batchStamps;
+    private final Integer[] batchOrder;
+    private final Integer[] indexes;
+    private final Comparator<Integer> byStamp;
+
+    //history has to keep views in the order they are added, it is only used under the lock
+    public ConcurrentHistoryManager(HistoryManager history, Executor executor) {
+        this.history = history;
+        this.executor = executor;
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        buffers = new Buffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            buffers[i] = new Buffer();
+        }
+        batchTasks = new Task[stripes * BUFFER_SIZE];
+        batchStamps = new long[stripes * BUFFER_SIZE];
+        batchOrder = new Integer[stripes * BUFFER_SIZE];
+        indexes = new Integer[stripes * BUFFER_SIZE];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        byStamp = Comparator.comparingLong(i -> batchStamps[i]);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager history) {
+        this(history, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public void add(Task task) {
+        Buffer buffer = buffers[stripe()];
+        long stamp = System.nanoTime();
+        int pending;
+        while ((pending = buffer.offer(task, stamp)) < 0) {
+            drainLock.lock();
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+        if (pending >= DRAIN_THRESHOLD) {
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            history.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory(offset, limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public HistoryPage getHistoryPage(int offset, int limit) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return new HistoryPage(history.getHistory(offset, limit), history.size());
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.size();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    //action runs under the lock, views made meanwhile wait in buffers
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            history.forEach(action);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    //thread keeps its stripe, so its own views are buffered in order
+    private int stripe() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (buffers.length - 1);
+    }
+
+    //flag is cleared before draining, so views buffered during a drain schedule the next one
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                drainLock.lock();
+                try {
+                    drainScheduled.set(false);
+                    drainBuffers();
+                } finally {
+                    drainLock.unlock();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //views stay buffered until a full buffer or a read drains them
+            drainScheduled.set(false);
+        }
+    }
+
+    private void drainBuffers() {
+        int count = 0;
+        for (Buffer buffer : buffers) {
+            count = buffer.drainTo(batchTasks, batchStamps, count);
+        }
+        if (count == 0) {
+            return;
+        }
+        if (isSorted(count)) {
+            for (int i = 0; i < count; i++) {
+                history.add(batchTasks[i]);
+            }
+        } else {
+            System.arraycopy(indexes, 0, batchOrder, 0, count);
+            //stable sort keeps views of one stripe in buffer order when stamps are equal
+            Arrays.sort(batchOrder, 0, count, byStamp);
+            for (int i = 0; i < count; i++) {
+                history.add(batchTasks[batchOrder[i]]);
+            }
+        }
+        Arrays.fill(batchTasks, 0, count, null);
+    }
+
+    //usual when views come from one thread at a time
+    private boolean isSorted(int count) {
+        for (int i = 1; i < count; i++) {
+            if (batchStamps[i] < batchStamps[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //ring buffer filled by any number of threads and drained by the lock holder
+    private static final class Buffer {
+        private final AtomicReferenceArray<Task> tasks = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final long[] stamps = new long[BUFFER_SIZE];
+        private final AtomicLong writeIndex = new AtomicLong();
+        private volatile long readIndex;
+
+        //views in buffer after this one, -1 if buffer is full
+        int offer(Task task, long stamp) {
+            while (true) {
+                long write = writeIndex.get();
+                long pending = write - readIndex;
+                if (pending >= BUFFER_SIZE) {
+                    return -1;
+                }
+                if (writeIndex.compareAndSet(write, write + 1)) {
+                    int slot = (int) (write & (BUFFER_SIZE - 1));
+                    stamps[slot] = stamp;
+                    //stamp is published together with the task
+                    tasks.setRelease(slot, task);
+                    return (int) pending + 1;
+                }
+            }
+        }
+
+        //stops at a slot claimed but not yet written, it is taken by the next drain
+        int drainTo(Task[] batchTasks, long[] batchStamps, int count) {
+            long read = readIndex;
+            long write = writeIndex.get();
+            for (; read < write; read++) {
+                int slot = (int) (read & (BUFFER_SIZE - 1));
+                Task task = tasks.getAcquire(slot);
+                if (task == null) {
+                    break;
+                }
+                batchTasks[count] = task;
+                batchStamps[count] = stamps[slot];
+                count++;
+                tasks.setPlain(slot, null);
+            }
+            //slots are cleared before writers may reuse them
+            readIndex = read;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.Type;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+//thread-safe view of a task manager: lists are read in parallel, changes run one at a time,
+//so epic status, subtask links and interception checks are never seen half-done.
+//get by id changes history, so it is a change as well unless history is ConcurrentHistoryManager
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskManager taskManager;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //views are recorded without the write lock, file backed manager still persists them one at a time
+    private final boolean parallelViews;
+
+    public ConcurrentTaskManager(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        parallelViews = taskManager instanceof InMemoryTaskManager manager
+                && manager.historyManager instanceof ConcurrentHistoryManager;
+    }
+
+    private <T> T view(Supplier<T> action) {
+        return parallelViews ? read(action) : write(action);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(taskManager::getAllTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(taskManager::deleteAllTasks);
+    }
+
+    @Override
+    public Task addTask(Task task) {
+        return write(() -> taskManager.addTask(task));
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        return write(() -> taskManager.updateTask(task));
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return view(() -> taskManager.getTaskById(id));
+    }
+
+    @Override
+    public Task deleteTaskById(int id) {
+        return write(() -> taskManager.deleteTaskById(id));
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) {
+        write(() -> taskManager.addSubtask(subtask));
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return read(taskManager::getAllSubtasks);
+    }
+
+    @Override
+    public Task getSubtaskById(int id) {
+        return view(() -> taskManager.getSubtaskById(id));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(taskManager::deleteAllSubtasks);
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        write(() -> taskManager.deleteSubtaskById(id));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        return write(() -> taskManager.updateSubtask(subtask));
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        write(() -> taskManager.addEpic(epic));
+    }
+
+    @Override
+    public Task getEpicById(int id) {
+        return view(() -> taskManager.getEpicById(id));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasksById(int id) {
+        return read(() -> taskManager.getEpicSubtasksById(id));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(taskManager::getAllEpics);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(taskManager::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> taskManager.deleteEpicById(id));
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        return write(() -> taskManager.updateEpic(epic));
+    }
+
+    @Override
+    public TaskPage<Task> findTasks(TaskQuery query) {
+        return read(() -> taskManager.findTasks(query));
+    }
+
+    @Override
+    public TaskPage<Subtask> findSubtasks(TaskQuery query) {
+        return read(() -> taskManager.findSubtasks(query));
+    }
+
+    @Override
+    public TaskPage<Epic> findEpics(TaskQuery query) {
+        return read(() -> taskManager.findEpics(query));
+    }
+
+    @Override
+    public long getVersion(Type type) {
+        return read(() -> taskManager.getVersion(type));
+    }
+
+    @Override
+    public long getVersion(int id) {
+        return read(() -> taskManager.getVersion(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(taskManager::getHistory);
+    }
+
+    @Override
+    public HistoryPage getHistoryPage(int offset, int limit) {
+        return read(() -> taskManager.getHistoryPage(offset, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritisedTasks() {
+        return read(taskManager::getPrioritisedTasks);
+    }
+}
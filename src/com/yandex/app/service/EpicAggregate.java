@@ -0,0 +1,56 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.Status;
+
+import java.time.ZonedDateTime;
+import java.util.TreeMap;
+
+//aggregates over subtasks of one epic, updated on every subtask change instead of rescanning subtasks
+class EpicAggregate {
+    private final int[] statusCounts = new int[Status.values().length];
+    private int size;
+    //start and end times of subtasks with time, with number of subtasks sharing each of them
+    private final TreeMap<ZonedDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<ZonedDateTime, Integer> endTimes = new TreeMap<>();
+
+    void addStatus(Status status) {
+        statusCounts[status.ordinal()]++;
+        size++;
+    }
+
+    void removeStatus(Status status) {
+        statusCounts[status.ordinal()]--;
+        size--;
+    }
+
+    //all new or no subtasks - NEW, all done - DONE, otherwise IN_PROGRESS
+    Status getStatus() {
+        if (statusCounts[Status.NEW.ordinal()] == size) {
+            return Status.NEW;
+        }
+        if (statusCounts[Status.DONE.ordinal()] == size) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    void addTime(ZonedDateTime startTime, ZonedDateTime endTime) {
+        startTimes.merge(startTime, 1, Integer::sum);
+        endTimes.merge(endTime, 1, Integer::sum);
+    }
+
+    void removeTime(ZonedDateTime startTime, ZonedDateTime endTime) {
+        startTimes.computeIfPresent(startTime, (time, count) -> count == 1 ? null : count - 1);
+        endTimes.computeIfPresent(endTime, (time, count) -> count == 1 ? null : count - 1);
+    }
+
+    //earliest subtask start, null if no subtask has time
+    ZonedDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    //latest subtask end, null if no subtask has time
+    ZonedDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+}
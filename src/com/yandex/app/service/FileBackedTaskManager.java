@@ -1,40 +1,116 @@
 package com.yandex.app.service;
 
-import com.yandex.app.enums.Status;
+import com.yandex.app.enums.FsyncPolicy;
+import com.yandex.app.enums.JournalOperation;
+import com.yandex.app.enums.StorageFormat;
 import com.yandex.app.enums.Type;
 import com.yandex.app.exception.ManagerSaveException;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
+import com.yandex.app.utility.IntObjectMap;
 import com.yandex.app.utility.Managers;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
-import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
-public class FileBackedTaskManager extends InMemoryTaskManager {
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static com.yandex.app.enums.JournalOperation.*;
+
+public final class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
     private static final String CSV_FILE_NAME = "src/resources/taskManagerData.csv";
     private static final String CSV_TITLE = "id,type,name,status,description,duration,startTime,epic";
     private final Path path;
+    private final PersistenceSettings settings;
+    private TaskJournal journal;
+    private ExecutorService compactionExecutor;
+    private Future<?> compaction;
+    //views not persisted yet, see PersistenceSettings.historyFlushCount
+    private final List<Integer> pendingViews = new ArrayList<>();
+    //runs history flush and periodic fsync, created if either is on
+    private ScheduledExecutorService scheduler;
+    //written data not forced yet, see PersistenceSettings.fsyncPolicy
+    private boolean snapshotSynced = true;
+    private boolean journalSynced = true;
+    //csv journal records are parsed with it, snapshot rows by TaskCsvReader
+    private final TaskCsvParser csvParser = new TaskCsvParser();
+    private int loadedRows;
+    private LoadReport loadReport;
+    //snapshot tasks and subtasks not decoded yet are read from, null unless loaded lazily from binary file
+    private TaskBinaryCodec.Reader mappedSnapshot;
+    //record offsets of rows loaded as keys only, by id, used while loading
+    private int[] rowOffsets;
+    //in async mode changes are written by writer thread, see PersistenceSettings.asyncWrites
+    private Thread writer;
+    private final List<String> queuedRecords = new ArrayList<>();
+    //changes made and changes written, futures of persisted() wait for their change to be written
+    private long changeSeq;
+    private long writtenSeq;
+    //write of changes up to it failed with failure, they are retried with the next change;
+    //write error is thrown to the next caller changing tasks
+    private long failedSeq;
+    private ManagerSaveException failure;
+    private ManagerSaveException writeError;
+    private final TreeMap<Long, CompletableFuture<Void>> persistedFutures = new TreeMap<>();
+    private boolean closing;
+    private long flushes;
+    private long changesWritten;
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private long totalFlushNanos;
+
+    public FileBackedTaskManager(HistoryManager historyManager, Path path, PersistenceSettings settings) {
+        super(historyManager, settings.isLazyLoad() ? new LazyTaskMap<>() : new IntObjectMap<>(),
+                settings.isLazyLoad() ? new LazyTaskMap<>() : new IntObjectMap<>());
+        this.path = path;
+        this.settings = settings;
+        Duration flushInterval = settings.getHistoryFlushInterval();
+        if (flushInterval != null) {
+            schedule(this::flushHistoryQuietly, flushInterval);
+        }
+        if (settings.getFsyncPolicy() == FsyncPolicy.PERIODIC) {
+            schedule(this::syncQuietly, settings.getFsyncInterval());
+        }
+        if (settings.isAsyncWrites()) {
+            writer = new Thread(this::writeChanges, "persistence-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void schedule(Runnable task, Duration interval) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "persistence-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        scheduler.scheduleWithFixedDelay(task, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
 
     public FileBackedTaskManager(HistoryManager historyManager, Path path) {
-        super(historyManager);
-        this.path = path;
+        this(historyManager, path, new PersistenceSettings());
     }
 
     public FileBackedTaskManager(HistoryManager historyManager) {
-        this(historyManager, Paths.get(CSV_FILE_NAME));
+        this(historyManager, new PersistenceSettings());
+    }
+
+    //loads default file
+    public FileBackedTaskManager(HistoryManager historyManager, PersistenceSettings settings) {
+        this(historyManager, Paths.get(CSV_FILE_NAME), settings);
         init();
     }
 
@@ -43,85 +119,206 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     public static FileBackedTaskManager loadFromFile(Path file) {
-        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
+        return loadFromFile(file, new PersistenceSettings());
+    }
+
+    public static FileBackedTaskManager loadFromFile(Path file, PersistenceSettings settings) {
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file, settings);
         fileBackedTaskManager.init();
         return fileBackedTaskManager;
     }
 
     private void init() {
         loadFromFile();
+        if (settings.isJournal()) {
+            openJournal();
+        }
     }
 
+    //snapshot first, then journal records in the order they were written
     private void loadFromFile() {
+        long start = System.nanoTime();
+        IntObjectMap<Task> rows = new IntObjectMap<>();
+        Set<Integer> historyIds = new LinkedHashSet<>();
+        try {
+            if (isBinarySnapshot(path) && settings.isLazyLoad()) {
+                mapBinarySnapshot(rows, historyIds);
+            } else if (isBinarySnapshot(path)) {
+                loadBinarySnapshot(rows, historyIds);
+            } else if (settings.isParallelLoad() && Files.exists(path) && TaskCsvChunkReader.canRead(Files.size(path))) {
+                loadSnapshotParallel(rows, historyIds);
+            } else {
+                loadSnapshot(rows, historyIds);
+            }
+            if (settings.isJournal()) {
+                TaskJournal.replay(getCompactingJournalPath(), record -> replayRecord(record, rows, historyIds));
+                TaskJournal.replay(getJournalPath(), record -> replayRecord(record, rows, historyIds));
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(e);
+        }
+        if (mappedSnapshot != null) {
+            loadMappedTasks(rows);
+        } else {
+            loadTasks(rows.values(), settings.isParallelLoad());
+        }
+        fillHistory(historyIds);
+        loadReport = new LoadReport(loadedRows, System.nanoTime() - start);
+    }
+
+    //null until file is loaded
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    private void loadSnapshot(IntObjectMap<Task> rows, Set<Integer> historyIds) throws IOException {
         if (Files.exists(path)) {
-            try (BufferedReader br = Files.newBufferedReader(path)) {
-                int maxId = 0;
+            try (TaskCsvReader reader = new TaskCsvReader(path)) {
                 //skip header
-                br.readLine();
-                while (true) {
-                    String line = br.readLine();
-                    if (line != null && !line.isEmpty()) {
-                        Task task = fromString(line);
-                        int id = task.getId();
-                        if (id > maxId) {
-                            maxId = id;
-                        }
-                        fillTasks(task);
-                    } else break;
+                reader.nextLine();
+                while (reader.nextLine() && !reader.isBlankLine()) {
+                    putRow(rows, reader.readTask());
+                }
+                if (reader.nextLine() && !reader.isBlankLine()) {
+                    for (int id : reader.readIds()) {
+                        historyIds.add(id);
+                    }
                 }
-                idSeq = maxId;
+            }
+        }
+    }
+
+    //format is taken from file content, so file written in either format can be loaded
+    private static boolean isBinarySnapshot(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return TaskBinaryCodec.isBinary(in.readNBytes(4));
+        }
+    }
+
+    private void loadBinarySnapshot(IntObjectMap<Task> rows, Set<Integer> historyIds) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            TaskBinaryCodec.Reader reader = new TaskBinaryCodec.Reader(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            for (Task task = reader.nextTask(); task != null; task = reader.nextTask()) {
+                putRow(rows, task);
+            }
+            for (int id : reader.readHistory()) {
+                historyIds.add(id);
+            }
+        }
+    }
 
-                String line = br.readLine();
-                if (line != null && !line.isEmpty()) {
-                    List<Integer> ids = historyFromString(line);
-                    fillHistory(ids);
+    //rows are keys without name and description, full epics are read, as epic fields are calculated on load
+    private void mapBinarySnapshot(IntObjectMap<Task> rows, Set<Integer> historyIds) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            TaskBinaryCodec.Reader reader = new TaskBinaryCodec.Reader(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            rowOffsets = new int[reader.getTaskCount() + 1];
+            for (Task task = reader.nextTask(false); task != null; task = reader.nextTask(false)) {
+                if (task.getType() == Type.EPIC) {
+                    putRow(rows, reader.taskAt(reader.getRecordOffset()));
+                } else {
+                    putRow(rows, task);
+                    if (task.getId() >= rowOffsets.length) {
+                        rowOffsets = Arrays.copyOf(rowOffsets, Math.max(task.getId() + 1, rowOffsets.length * 2));
+                    }
+                    rowOffsets[task.getId()] = reader.getRecordOffset();
                 }
-            } catch (IOException e) {
-                throw new ManagerSaveException(e);
             }
+            for (int id : reader.readHistory()) {
+                historyIds.add(id);
+            }
+            mappedSnapshot = reader;
         }
     }
 
-    private void fillTasks(Task task) {
-        switch (task.getType()) {
-            case TASK -> tasks.put(task.getId(), task);
-            case EPIC -> epics.put(task.getId(), (Epic) task);
-            case SUBTASK -> {
-                subtasks.put(task.getId(), (Subtask) task);
-                epics.get(((Subtask) task).getEpicId()).addSubtaskId(task.getId());
+    //rows still standing for snapshot records are left in maps as offsets, rows put by journal as they are
+    private void loadMappedTasks(IntObjectMap<Task> rows) {
+        LazyTaskMap<Task> lazyTasks = (LazyTaskMap<Task>) tasks;
+        LazyTaskMap<Subtask> lazySubtasks = (LazyTaskMap<Subtask>) subtasks;
+        lazyTasks.setSnapshot(mappedSnapshot);
+        lazySubtasks.setSnapshot(mappedSnapshot);
+        for (Task row : rows.values()) {
+            int offset = row.getId() < rowOffsets.length ? rowOffsets[row.getId()] : 0;
+            switch (row.getType()) {
+                case TASK -> {
+                    if (offset != 0) {
+                        lazyTasks.putPending(row.getId(), offset);
+                    } else {
+                        tasks.put(row.getId(), row);
+                    }
+                }
+                case SUBTASK -> {
+                    if (offset != 0) {
+                        lazySubtasks.putPending(row.getId(), offset);
+                    } else {
+                        subtasks.put(row.getId(), (Subtask) row);
+                    }
+                }
+                case EPIC -> epics.put(row.getId(), (Epic) row);
             }
         }
-        if (task.getStartTime() != null && task.getType() != Type.EPIC) {
-            prioritisedTasks.add(task);
+        rowOffsets = null;
+        indexLoadedTasks(rows.values(), settings.isParallelLoad());
+    }
+
+    private void loadSnapshotParallel(IntObjectMap<Task> rows, Set<Integer> historyIds) throws IOException {
+        TaskCsvChunkReader reader = new TaskCsvChunkReader(path);
+        reader.getRows().forEach(task -> putRow(rows, task));
+        for (int id : reader.getHistoryIds()) {
+            historyIds.add(id);
         }
     }
 
-    private void fillHistory(List<Integer> ids) {
-        Map<Integer, Task> tasks = getAllTypesOfTasks().stream().collect(Collectors.toMap(Task::getId, Function.identity()));
-        ids.forEach(id -> historyManager.add(tasks.get(id)));
+    private void replayRecord(String record, IntObjectMap<Task> rows, Set<Integer> historyIds) {
+        int separator = record.indexOf(',');
+        String value = record.substring(separator + 1);
+        switch (JournalOperation.valueOf(record.substring(0, separator))) {
+            case PUT -> putRow(rows, csvParser.parse(value));
+            case PUT_BINARY -> putRow(rows, TaskBinaryCodec.decodeTask(value));
+            case DELETE -> rows.remove(Integer.parseInt(value));
+            case CLEAR -> {
+                Type type = Type.valueOf(value);
+                rows.keySet().forEach(id -> {
+                    if (rows.get(id).getType() == type) {
+                        rows.remove(id);
+                    }
+                });
+            }
+            case VIEW -> {
+                Integer id = Integer.valueOf(value);
+                historyIds.remove(id);
+                historyIds.add(id);
+            }
+        }
     }
 
-    private Task fromString(String line) {
-        String[] strings = line.split(",");
-        String id = strings[0];
-        Type type = Type.valueOf(strings[1]);
-        String name = strings[2];
-        Status status = Status.valueOf(strings[3]);
-        String description = strings[4];
-        Duration duration = Duration.ofMinutes(Integer.parseInt(strings[5]));
-        ZonedDateTime startTime = strings[6].equals("null") ? null : ZonedDateTime.parse(strings[6]);
-        Task task = null;
-        switch (type) {
-            case TASK -> task = new Task(Integer.parseInt(id), name, description, status, duration, startTime);
-            case EPIC -> task = new Epic(Integer.parseInt(id), name, description, status, duration, startTime);
-            case SUBTASK ->
-                    task = new Subtask(Integer.parseInt(id), name, description, Integer.parseInt(strings[7]), status, duration, startTime);
+    //ids of deleted tasks are not reused, so sequence follows every task ever written
+    private void putRow(IntObjectMap<Task> rows, Task task) {
+        rows.put(task.getId(), task);
+        //row replaced by journal no longer stands for a snapshot record
+        if (rowOffsets != null && task.getId() < rowOffsets.length) {
+            rowOffsets[task.getId()] = 0;
+        }
+        loadedRows++;
+        if (task.getId() > idSeq) {
+            idSeq = task.getId();
         }
-        return task;
     }
 
-    static List<Integer> historyFromString(String value) {
-        return Arrays.stream(value.split(",")).map(Integer::valueOf).toList();
+    private void fillHistory(Collection<Integer> ids) {
+        ids.stream().map(this::findTask).filter(Objects::nonNull).forEach(historyManager::add);
+    }
+
+    private Task findTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task == null ? subtasks.get(id) : task;
     }
 
     private List<Task> getAllTypesOfTasks() {
@@ -132,22 +329,432 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return tasks;
     }
 
+    //rewrite snapshot or, in journal mode, append records describing the change;
+    //in async mode change is only queued and written by writer thread together with changes made meanwhile
+    private void persist(Supplier<List<String>> records) {
+        if (settings.isJournal() && journal == null) {
+            //manager was not loaded from file, fresh snapshot replaces whatever was there
+            openJournal();
+        } else if (writer != null) {
+            if (settings.isJournal()) {
+                queuedRecords.addAll(journalBatch(records));
+            }
+            pendingViews.clear();
+            changeSeq++;
+            notifyAll();
+            //change is queued anyway, previous failure reaches the caller like it would in sync mode
+            if (writeError != null) {
+                ManagerSaveException error = writeError;
+                writeError = null;
+                throw error;
+            }
+        } else if (!settings.isJournal()) {
+            long start = System.nanoTime();
+            save();
+            recordFlush(start, 1);
+        } else {
+            long start = System.nanoTime();
+            try {
+                appendToJournal(journalBatch(records));
+            } catch (IOException e) {
+                throw new ManagerSaveException(e);
+            }
+            pendingViews.clear();
+            recordFlush(start, 1);
+            compactJournalIfFull();
+        }
+    }
+
+    //pending views go first to keep records in the order changes were made
+    private List<String> journalBatch(Supplier<List<String>> records) {
+        List<String> batch = new ArrayList<>();
+        pendingViews.forEach(id -> batch.add(record(VIEW, id)));
+        batch.addAll(records.get());
+        return batch;
+    }
+
+    private void appendToJournal(List<String> batch) throws IOException {
+        journal.append(batch);
+        if (settings.getFsyncPolicy() == FsyncPolicy.PER_WRITE) {
+            journal.force();
+        } else {
+            synchronized (this) {
+                journalSynced = false;
+            }
+        }
+    }
+
+    private void compactJournalIfFull() {
+        if (journal.size() >= settings.getJournalCompactionThreshold()) {
+            compactJournal();
+        }
+    }
+
+    //file is replaced, not truncated, so it is never seen half-written, also by a mapping tasks are decoded from
     private void save() {
-        try (BufferedWriter bw = Files.newBufferedWriter(path)) {
-            bw.write(CSV_TITLE);
-            bw.newLine();
+        try {
+            boolean force = settings.getFsyncPolicy() == FsyncPolicy.PER_WRITE;
+            writeSnapshot(path, snapshot(), force);
+            snapshotSynced = force;
+            pendingViews.clear();
+        } catch (IOException e) {
+            throw new ManagerSaveException(e);
+        }
+    }
+
+    //writer thread: takes everything changed since last write under manager lock, writes it without the lock,
+    //so changes made during a write are written together by the next one
+    private void writeChanges() {
+        while (true) {
+            long seq;
+            List<String> batch = null;
+            byte[] snapshot = null;
+            synchronized (this) {
+                while (!closing && (writtenSeq == changeSeq || failedSeq == changeSeq)) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (writtenSeq == changeSeq || failedSeq == changeSeq) {
+                    return;
+                }
+                seq = changeSeq;
+                if (settings.isJournal()) {
+                    batch = new ArrayList<>(queuedRecords);
+                    queuedRecords.clear();
+                } else {
+                    snapshot = snapshot();
+                }
+            }
+            long start = System.nanoTime();
+            ManagerSaveException error = null;
+            try {
+                if (batch != null) {
+                    appendToJournal(batch);
+                } else {
+                    boolean force = settings.getFsyncPolicy() == FsyncPolicy.PER_WRITE;
+                    writeSnapshot(path, snapshot, force);
+                    synchronized (this) {
+                        snapshotSynced = force;
+                    }
+                }
+            } catch (IOException e) {
+                error = new ManagerSaveException(e);
+            } catch (ManagerSaveException e) {
+                error = e;
+            }
+            synchronized (this) {
+                if (error == null) {
+                    recordFlush(start, seq - writtenSeq);
+                    writtenSeq = seq;
+                    completePersisted(seq, null);
+                    if (batch != null) {
+                        try {
+                            compactJournalIfFull();
+                        } catch (ManagerSaveException e) {
+                            writeError = e;
+                        }
+                    }
+                } else {
+                    //records go back in front of those queued meanwhile
+                    if (batch != null) {
+                        queuedRecords.addAll(0, batch);
+                    }
+                    failedSeq = seq;
+                    failure = error;
+                    writeError = error;
+                    completePersisted(seq, error);
+                }
+                notifyAll();
+            }
+        }
+    }
 
-            for (Task t : getAllTypesOfTasks()) {
-                bw.write(toString(t));
-                bw.newLine();
+    private void completePersisted(long seq, ManagerSaveException error) {
+        SortedMap<Long, CompletableFuture<Void>> done = persistedFutures.headMap(seq, true);
+        done.values().forEach(future -> {
+            if (error == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(error);
             }
-            bw.newLine();
-            bw.write(historyToString(historyManager));
+        });
+        done.clear();
+    }
+
+    private void recordFlush(long start, long changes) {
+        lastFlushNanos = System.nanoTime() - start;
+        maxFlushNanos = Math.max(maxFlushNanos, lastFlushNanos);
+        totalFlushNanos += lastFlushNanos;
+        flushes++;
+        changesWritten += changes;
+    }
+
+    //completes when every change made before the call is written and, with PER_WRITE fsync policy, forced;
+    //completed at once unless writes are async
+    public synchronized CompletableFuture<Void> persisted() {
+        if (writtenSeq == changeSeq) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (failedSeq == changeSeq) {
+            return CompletableFuture.failedFuture(failure);
+        }
+        return persistedFutures.computeIfAbsent(changeSeq, seq -> new CompletableFuture<>());
+    }
+
+    public synchronized PersistenceMetrics getPersistenceMetrics() {
+        return new PersistenceMetrics((int) (changeSeq - writtenSeq), flushes, changesWritten, lastFlushNanos,
+                maxFlushNanos, totalFlushNanos);
+    }
+
+    //history only changes on views, they are persisted in batches
+    private void persistView(int id) {
+        pendingViews.add(id);
+        if (pendingViews.size() >= settings.getHistoryFlushCount()) {
+            flushHistory();
+        }
+    }
+
+    public synchronized void flushHistory() {
+        if (!pendingViews.isEmpty()) {
+            persist(List::of);
+        }
+    }
+
+    //failed views stay pending, so they are retried on next tick and error reaches the next caller
+    private void flushHistoryQuietly() {
+        try {
+            flushHistory();
+        } catch (ManagerSaveException ignored) {
+        }
+    }
+
+    //forces data written since last sync to disk, see PersistenceSettings.fsyncPolicy
+    public synchronized void sync() {
+        try {
+            if (journal != null && !journalSynced) {
+                journal.force();
+                journalSynced = true;
+            }
+            if (!snapshotSynced) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                forceDirectory(path);
+                snapshotSynced = true;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(e);
+        }
+    }
+
+    //data stays unsynced, so it is retried on next tick
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (ManagerSaveException ignored) {
+        }
+    }
+
+    private byte[] snapshot() {
+        return switch (settings.getFormat()) {
+            case CSV -> snapshotToString().getBytes(StandardCharsets.UTF_8);
+            case BINARY -> mappedSnapshot == null
+                    ? TaskBinaryCodec.write(getAllTypesOfTasks(), historyManager.getHistory())
+                    : mappedBinarySnapshot();
+        };
+    }
+
+    //records not decoded yet are copied from mapped snapshot as they are
+    private byte[] mappedBinarySnapshot() {
+        TaskBinaryCodec.Builder builder = new TaskBinaryCodec.Builder(mappedSnapshot.getZones());
+        addRecords(builder, (LazyTaskMap<Task>) tasks);
+        epics.values().forEach(builder::add);
+        addRecords(builder, (LazyTaskMap<Subtask>) subtasks);
+        return builder.build(historyManager.getHistory());
+    }
+
+    private void addRecords(TaskBinaryCodec.Builder builder, LazyTaskMap<? extends Task> map) {
+        map.keySet().forEach(id -> {
+            int offset = map.getPendingOffset(id);
+            if (offset != 0) {
+                mappedSnapshot.copyRecord(offset, builder);
+            } else {
+                builder.add(map.get(id));
+            }
+        });
+    }
+
+    private String snapshotToString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(CSV_TITLE).append(System.lineSeparator());
+        for (Task t : getAllTypesOfTasks()) {
+            sb.append(toString(t)).append(System.lineSeparator());
+        }
+        sb.append(System.lineSeparator());
+        sb.append(historyToString(historyManager));
+        return sb.toString();
+    }
+
+    //journal starts from a snapshot of current state, replayed journals are not needed anymore
+    private void openJournal() {
+        try {
+            //journals are deleted after it, so snapshot is forced unless fsync is off
+            writeSnapshot(path, snapshot(), settings.getFsyncPolicy() != FsyncPolicy.NONE);
+            pendingViews.clear();
+            Files.deleteIfExists(getCompactingJournalPath());
+            journal = new TaskJournal(getJournalPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException(e);
+        }
+    }
+
+    //snapshot is taken now, written in background; records until then stay in compacting journal for recovery
+    private void compactJournal() {
+        if (compaction != null) {
+            if (!compaction.isDone()) {
+                return;
+            }
+            awaitCompaction();
+        }
+        if (compactionExecutor == null) {
+            compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        byte[] snapshot = snapshot();
+        try {
+            journal.rotate(getCompactingJournalPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException(e);
+        }
+        compaction = compactionExecutor.submit(() -> {
+            try {
+                writeSnapshot(path, snapshot, settings.getFsyncPolicy() != FsyncPolicy.NONE);
+                Files.delete(getCompactingJournalPath());
+            } catch (IOException e) {
+                throw new ManagerSaveException(e);
+            }
+        });
+    }
+
+    private void awaitCompaction() {
+        try {
+            compaction.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof ManagerSaveException mse ? mse : new ManagerSaveException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException(e);
+        }
+    }
+
+    //snapshot is replaced as a whole, so neither readers nor journal replay after a crash see a half-written file.
+    //forced snapshot reaches the disk before it replaces the old one, then the rename is forced with its directory
+    private static void writeSnapshot(Path target, byte[] snapshot, boolean force) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(true);
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (force) {
+            forceDirectory(target);
+        }
+    }
+
+    //not every platform can open a directory to force it, file data is forced anyway
+    private static void forceDirectory(Path file) {
+        try (FileChannel channel = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    //rewrites snapshot in given format, format of source is detected from its content
+    public static void convert(Path source, Path target, StorageFormat format) {
+        FileBackedTaskManager manager = loadFromFile(source, new PersistenceSettings().setFormat(format));
+        try {
+            writeSnapshot(target, manager.snapshot(), true);
         } catch (IOException e) {
             throw new ManagerSaveException(e);
         }
     }
 
+    //queued changes are written first, also a failed write is retried once more
+    private void stopWriter() {
+        if (writer == null) {
+            return;
+        }
+        synchronized (this) {
+            flushHistory();
+            closing = true;
+            failedSeq = -1;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException(e);
+        }
+        synchronized (this) {
+            writer = null;
+            if (writeError != null) {
+                ManagerSaveException error = writeError;
+                writeError = null;
+                throw error;
+            }
+        }
+    }
+
+    private Path getJournalPath() {
+        return path.resolveSibling(path.getFileName() + ".journal");
+    }
+
+    private Path getCompactingJournalPath() {
+        return path.resolveSibling(path.getFileName() + ".journal.compacting");
+    }
+
+    //persist pending views, force what is not synced yet unless fsync is off, release files and threads
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        stopWriter();
+        synchronized (this) {
+            try {
+                flushHistory();
+                if (compaction != null) {
+                    awaitCompaction();
+                }
+                if (settings.getFsyncPolicy() != FsyncPolicy.NONE) {
+                    sync();
+                }
+                if (journal != null) {
+                    journal.close();
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException(e);
+            } finally {
+                if (compactionExecutor != null) {
+                    compactionExecutor.shutdown();
+                }
+            }
+        }
+    }
+
     String toString(Task task) {
         StringBuilder sb = new StringBuilder();
         sb.append(task.getId()).append(",")
@@ -165,111 +772,138 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
     static String historyToString(HistoryManager historyManager) {
         StringBuilder sb = new StringBuilder();
-        historyManager.getHistory().forEach(task -> sb.append(task.getId()).append(","));
+        historyManager.forEach(task -> sb.append(task.getId()).append(","));
         return sb.toString();
     }
 
+    private static String record(JournalOperation operation, Object value) {
+        return operation + "," + value;
+    }
+
+    //binary snapshots get binary records as well, csv rows can't hold commas and line breaks of text
+    private String putRecord(Task task) {
+        return switch (settings.getFormat()) {
+            case CSV -> record(PUT, toString(task));
+            case BINARY -> record(PUT_BINARY, TaskBinaryCodec.encodeTask(task));
+        };
+    }
+
     @Override
-    public Task addTask(Task task) {
+    public synchronized Task addTask(Task task) {
         super.addTask(task);
-        save();
+        persist(() -> List.of(putRecord(task)));
         return task;
     }
 
     @Override
-    public void addSubtask(Subtask task) {
+    public synchronized void addSubtask(Subtask task) {
         super.addSubtask(task);
-        save();
+        persist(() -> List.of(putRecord(task), putRecord(epics.get(task.getEpicId()))));
     }
 
     @Override
-    public void addEpic(Epic task) {
+    public synchronized void addEpic(Epic task) {
         super.addEpic(task);
-        save();
+        persist(() -> List.of(putRecord(task)));
     }
 
     @Override
-    public Task getTaskById(int id) {
+    public synchronized Task getTaskById(int id) {
         Task task = super.getTaskById(id);
         if (task != null) {
-            save();
+            persistView(id);
         }
         return task;
     }
 
     @Override
-    public Task getSubtaskById(int id) {
+    public synchronized Task getSubtaskById(int id) {
         Task task = super.getSubtaskById(id);
         if (task != null) {
-            save();
+            persistView(id);
         }
         return task;
     }
 
     @Override
-    public Task getEpicById(int id) {
+    public synchronized Task getEpicById(int id) {
         Task task = super.getEpicById(id);
         if (task != null) {
-            save();
+            persistView(id);
         }
         return task;
     }
 
     @Override
-    public Task deleteTaskById(int id) {
+    public synchronized Task deleteTaskById(int id) {
         Task task = super.deleteTaskById(id);
-        save();
+        persist(() -> List.of(record(DELETE, id)));
         return task;
     }
 
     @Override
-    public void deleteSubtaskById(int id) {
+    public synchronized void deleteSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
         super.deleteSubtaskById(id);
-        save();
+        persist(() -> List.of(record(DELETE, id), putRecord(epics.get(subtask.getEpicId()))));
     }
 
     @Override
-    public void deleteEpicById(int id) {
+    public synchronized void deleteEpicById(int id) {
+        Epic epic = epics.get(id);
+        int[] subtaskIds = epic == null ? new int[0] : epic.getSubtaskIds().toArray();
         super.deleteEpicById(id);
-        save();
+        persist(() -> {
+            List<String> records = new ArrayList<>();
+            for (int subtaskId : subtaskIds) {
+                records.add(record(DELETE, subtaskId));
+            }
+            records.add(record(DELETE, id));
+            return records;
+        });
     }
 
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persist(() -> List.of(record(CLEAR, Type.TASK)));
     }
 
     @Override
-    public void deleteAllSubtasks() {
+    public synchronized void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persist(() -> {
+            List<String> records = new ArrayList<>();
+            records.add(record(CLEAR, Type.SUBTASK));
+            epics.values().forEach(epic -> records.add(putRecord(epic)));
+            return records;
+        });
     }
 
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persist(() -> List.of(record(CLEAR, Type.SUBTASK), record(CLEAR, Type.EPIC)));
     }
 
     @Override
-    public Task updateTask(Task task) {
+    public synchronized Task updateTask(Task task) {
         Task tsk = super.updateTask(task);
-        save();
+        persist(() -> List.of(putRecord(tsk)));
         return tsk;
     }
 
     @Override
-    public Subtask updateSubtask(Subtask task) {
+    public synchronized Subtask updateSubtask(Subtask task) {
         Subtask tsk = super.updateSubtask(task);
-        save();
+        persist(() -> List.of(putRecord(tsk), putRecord(epics.get(tsk.getEpicId()))));
         return tsk;
     }
 
     @Override
-    public Epic updateEpic(Epic epic) {
+    public synchronized Epic updateEpic(Epic epic) {
         Epic epc = super.updateEpic(epic);
-        save();
+        persist(() -> List.of(putRecord(epc)));
         return epc;
     }
 }
@@ -3,6 +3,7 @@ package com.yandex.app.service;
 import com.yandex.app.model.Task;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface HistoryManager {
     void add(Task task);
@@ -10,4 +11,17 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    //at most limit tasks starting from offset, oldest view first like getHistory
+    List<Task> getHistory(int offset, int limit);
+
+    int size();
+
+    //page of getHistory(offset, limit) with size, implementations shared between threads take them at once
+    default HistoryPage getHistoryPage(int offset, int limit) {
+        return new HistoryPage(getHistory(offset, limit), size());
+    }
+
+    //walks history from oldest view without copying it
+    void forEach(Consumer<? super Task> action);
 }
@@ -0,0 +1,9 @@
+package com.yandex.app.service;
+
+import com.yandex.app.model.Task;
+
+import java.util.List;
+
+//page of history and history size taken at once, so they agree under concurrent views
+public record HistoryPage(List<Task> items, int total) {
+}
@@ -2,19 +2,21 @@ package com.yandex.app.service;
 
 import com.yandex.app.model.Node;
 import com.yandex.app.model.Task;
+import com.yandex.app.utility.IntObjectMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final HashMap<Integer, Node> history;
+    private final IntObjectMap<Node> history;
     private Node tail;
     private Node head;
 
     public InMemoryHistoryManager() {
-        history = new HashMap<>();
+        history = new IntObjectMap<>();
     }
 
     public void add(Task task) {
@@ -37,15 +39,6 @@ public class InMemoryHistoryManager implements HistoryManager {
         tail = node;
     }
 
-    private List<Task> getTasks() {
-        List<Task> tasks = new ArrayList<>();
-        Node node = head;
-        while (node != null) {
-            tasks.add(node.data);
-            node = node.next;
-        }
-        return tasks;
-    }
 
     private void removeNode(Node node) {
         Node prev = node.prev;
@@ -77,6 +70,48 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     @Override
     public List<Task> getHistory() {
-        return new ArrayList<>(getTasks());
+        List<Task> tasks = new ArrayList<>(history.size());
+        forEach(tasks::add);
+        return tasks;
+    }
+
+    //page is reached from the closer end of the list
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        int end = (int) Math.min((long) offset + limit, history.size());
+        if (offset >= end) {
+            return List.of();
+        }
+        Task[] page = new Task[end - offset];
+        if (offset < history.size() - end) {
+            Node node = head;
+            for (int i = 0; i < offset; i++) {
+                node = node.next;
+            }
+            for (int i = 0; i < page.length; i++, node = node.next) {
+                page[i] = node.data;
+            }
+        } else {
+            Node node = tail;
+            for (int i = history.size() - 1; i >= end; i--) {
+                node = node.prev;
+            }
+            for (int i = page.length - 1; i >= 0; i--, node = node.prev) {
+                page[i] = node.data;
+            }
+        }
+        return Arrays.asList(page);
+    }
+
+    @Override
+    public int size() {
+        return history.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        for (Node node = head; node != null; node = node.next) {
+            action.accept(node.data);
+        }
     }
 }
@@ -1,29 +1,55 @@
 package com.yandex.app.service;
 
 import com.yandex.app.enums.Status;
+import com.yandex.app.enums.Type;
 import com.yandex.app.exception.NotFoundException;
 import com.yandex.app.exception.ValidationException;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
+import com.yandex.app.utility.IntLongMap;
+import com.yandex.app.utility.IntObjectMap;
+import com.yandex.app.utility.IntSet;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
 import java.util.*;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final HashMap<Integer, Task> tasks;
-    protected final HashMap<Integer, Subtask> subtasks;
-    protected final HashMap<Integer, Epic> epics;
+    protected final IntObjectMap<Task> tasks;
+    protected final IntObjectMap<Subtask> subtasks;
+    protected final IntObjectMap<Epic> epics;
+    //subtask statuses counted per epic, status each subtask was counted with is the one in subtaskIndex
+    private final IntObjectMap<EpicAggregate> epicAggregates = new IntObjectMap<>();
+    //start and end each subtask with time was counted with, subtask may be changed in place before update
+    private final IntObjectMap<CountedTime> subtaskTimes = new IntObjectMap<>();
+    //ids by status and start time for list queries
+    private final TaskIndex taskIndex = new TaskIndex();
+    private final TaskIndex subtaskIndex = new TaskIndex();
+    private final TaskIndex epicIndex = new TaskIndex();
     HistoryManager historyManager;
     protected int idSeq = 0;
-
-    TreeSet<Task> prioritisedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime)
+    //change counter, every collection and task keeps its value at their last change, so versions never repeat
+    private long version;
+    private final long[] collectionVersions = new long[Type.values().length];
+    private final IntLongMap versions = new IntLongMap();
+
+    //start is compared by instant only, so tasks starting at the same instant in other zones are ordered by duration,
+    //that is by end, which the interception check relies on
+    TreeSet<Task> prioritisedTasks = new TreeSet<>(Comparator.<Task, ChronoZonedDateTime<?>>comparing(Task::getStartTime,
+                    ChronoZonedDateTime.timeLineOrder())
             .thenComparing(Task::getDuration).thenComparing(Task::getId));
 
     public InMemoryTaskManager(HistoryManager historyManager) {
-        tasks = new HashMap<>();
-        subtasks = new HashMap<>();
-        epics = new HashMap<>();
+        this(historyManager, new IntObjectMap<>(), new IntObjectMap<>());
+    }
+
+    //task and subtask maps may decode their values on first access, see LazyTaskMap
+    InMemoryTaskManager(HistoryManager historyManager, IntObjectMap<Task> tasks, IntObjectMap<Subtask> subtasks) {
+        this.tasks = tasks;
+        this.subtasks = subtasks;
+        epics = new IntObjectMap<>();
         this.historyManager = historyManager;
     }
 
@@ -31,6 +57,22 @@ public class InMemoryTaskManager implements TaskManager {
         return ++idSeq;
     }
 
+    private void changed(Type type, int id) {
+        collectionVersions[type.ordinal()] = ++version;
+        versions.put(id, version);
+    }
+
+    private void removed(Type type, int id) {
+        collectionVersions[type.ordinal()] = ++version;
+        versions.remove(id);
+    }
+
+    //ids are read before collection is cleared
+    private void cleared(Type type, IntSet ids) {
+        collectionVersions[type.ordinal()] = ++version;
+        ids.forEach(versions::remove);
+    }
+
     //Task methods
     //get all tasks
     @Override
@@ -42,8 +84,10 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteAllTasks() {
         removeTasksFromHistory(tasks.keySet());
+        cleared(Type.TASK, tasks.keySet());
         tasks.values().stream().filter(task -> task.getStartTime() != null).forEach(prioritisedTasks::remove);
         tasks.clear();
+        taskIndex.clear();
     }
 
     //add task
@@ -55,11 +99,41 @@ public class InMemoryTaskManager implements TaskManager {
             prioritisedTasks.add(task);
         }
         tasks.put(task.getId(), task);
+        taskIndex.put(task);
+        changed(Type.TASK, task.getId());
         return task;
     }
 
+    //prioritised tasks never intercept each other, so ordered by start they are ordered by end as well:
+    //walk back from the last task starting before the new task ends, stop at the first one ending before it starts
     private void validateTaskIntercept(Task task) {
-        prioritisedTasks.forEach(tsk -> validateTasksIntercept(tsk, task));
+        Task bound = new Task(Integer.MIN_VALUE, null, null, null, Duration.ZERO, task.getEndTime());
+        Iterator<Task> candidates = prioritisedTasks.headSet(bound, false).descendingIterator();
+        while (candidates.hasNext()) {
+            Task existingTask = candidates.next();
+            validateTasksIntercept(existingTask, task);
+            if (!existingTask.getEndTime().isAfter(task.getStartTime())) {
+                break;
+            }
+        }
+    }
+
+    //replace old task with new one in prioritised tasks, old task stays if new one intercepts
+    private void updatePrioritisedTask(Task oldTask, Task task) {
+        if (oldTask.getStartTime() != null) {
+            prioritisedTasks.remove(oldTask);
+        }
+        if (task.getStartTime() != null) {
+            try {
+                validateTaskIntercept(task);
+            } catch (ValidationException e) {
+                if (oldTask.getStartTime() != null) {
+                    prioritisedTasks.add(oldTask);
+                }
+                throw e;
+            }
+            prioritisedTasks.add(task);
+        }
     }
 
     private void validateTasksIntercept(Task existingTask, Task newTask) {
@@ -72,14 +146,10 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public Task updateTask(Task task) {
         Task oldTask = Optional.ofNullable(tasks.get(task.getId())).orElseThrow(() -> new NotFoundException("Error: task id:" + task.getId() + " not found"));
-        if (task.getStartTime() != null) {
-            validateTaskIntercept(task);
-            prioritisedTasks.add(task);
-        }
-        if (oldTask.getStartTime() != null) {
-            prioritisedTasks.remove(oldTask);
-        }
+        updatePrioritisedTask(oldTask, task);
         tasks.put(task.getId(), task);
+        taskIndex.put(task);
+        changed(Type.TASK, task.getId());
         return task;
     }
 
@@ -99,6 +169,8 @@ public class InMemoryTaskManager implements TaskManager {
             prioritisedTasks.remove(task);
         }
         historyManager.remove(id);
+        taskIndex.remove(id);
+        removed(Type.TASK, id);
         return tasks.remove(id);
     }
 
@@ -106,17 +178,16 @@ public class InMemoryTaskManager implements TaskManager {
     //add subtask, assume it can't exist w/o epic
     @Override
     public void addSubtask(Subtask subtask) {
+        Optional.ofNullable(epics.get(subtask.getEpicId())).orElseThrow(() -> new NotFoundException("Error: epic id:" + subtask.getEpicId() + " not found"));
         subtask.setId(generateId());
         if (subtask.getStartTime() != null) {
             validateTaskIntercept(subtask);
             prioritisedTasks.add(subtask);
         }
-        epics.get(subtask.getEpicId()).addSubtaskId(subtask.getId());
         subtasks.put(subtask.getId(), subtask);
-        updateEpicStatus(epics.get(subtask.getEpicId()));
-        if (subtask.getStartTime() != null) {
-            calculateEpicDuration(epics.get(subtask.getEpicId()));
-        }
+        linkSubtask(subtask);
+        changed(Type.SUBTASK, subtask.getId());
+        changed(Type.EPIC, subtask.getEpicId());
     }
 
     //get all subtasks
@@ -136,18 +207,19 @@ public class InMemoryTaskManager implements TaskManager {
     //delete all subtasks, remove epic id link, update epic status
     @Override
     public void deleteAllSubtasks() {
-        subtasks.values().forEach(s -> {
-            Epic epic = epics.get(s.getEpicId());
-            if (epic != null) {
-                epic.removeSubtaskId(s.getId());
-                updateEpicStatus(epic);
-            }
-            if (s.getStartTime() != null) {
-                prioritisedTasks.remove(s);
-            }
-        });
+        subtasks.values().stream().filter(subtask -> subtask.getStartTime() != null).forEach(prioritisedTasks::remove);
         removeTasksFromHistory(subtasks.keySet());
+        cleared(Type.SUBTASK, subtasks.keySet());
         subtasks.clear();
+        subtaskIndex.clear();
+        epicAggregates.clear();
+        subtaskTimes.clear();
+        epics.values().forEach(epic -> {
+            changed(Type.EPIC, epic.getId());
+            epic.clearSubtaskIds();
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        });
     }
 
     //delete subtask by id, remove epic id link, update epic status
@@ -157,27 +229,127 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask.getStartTime() != null) {
             prioritisedTasks.remove(subtask);
         }
-        int epicId = subtask.getEpicId();
-        epics.get(epicId).removeSubtaskId(id);
-        updateEpicStatus(epics.get(epicId));
+        unlinkSubtask(subtask);
         historyManager.remove(id);
         subtasks.remove(id);
+        removed(Type.SUBTASK, id);
+        changed(Type.EPIC, subtask.getEpicId());
     }
 
     //update subtask, update epic status
     @Override
     public Subtask updateSubtask(Subtask subtask) {
         Subtask oldSubtask = Optional.ofNullable(subtasks.get(subtask.getId())).orElseThrow(() -> new NotFoundException("Error: subtask id:" + subtask.getId() + " not found"));
+        updatePrioritisedTask(oldSubtask, subtask);
+        //subtask stays in its epic
+        subtask.setEpicId(oldSubtask.getEpicId());
+        subtasks.put(subtask.getId(), subtask);
+        Epic epic = epics.get(subtask.getEpicId());
+        EpicAggregate aggregate = getEpicAggregate(epic.getId());
+        aggregate.removeStatus(subtaskIndex.getStatus(subtask.getId()));
+        aggregate.addStatus(subtask.getStatus());
+        subtaskIndex.put(subtask);
+        uncountTime(aggregate, subtask.getId());
+        countTime(aggregate, subtask);
+        updateEpicStatus(epic);
+        updateEpicTime(epic);
+        changed(Type.SUBTASK, subtask.getId());
+        changed(Type.EPIC, epic.getId());
+        return subtask;
+    }
+
+    //link subtask to its epic, count its status and time
+    private void linkSubtask(Subtask subtask) {
+        Epic epic = countSubtask(subtask);
+        updateEpicStatus(epic);
         if (subtask.getStartTime() != null) {
-            validateTaskIntercept(subtask);
-            prioritisedTasks.add(subtask);
+            updateEpicTime(epic);
         }
-        if (oldSubtask.getStartTime() != null) {
-            prioritisedTasks.remove(oldSubtask);
+    }
+
+    //epic status and time are left for caller to update
+    private Epic countSubtask(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        epic.addSubtaskId(subtask.getId());
+        EpicAggregate aggregate = getEpicAggregate(epic.getId());
+        aggregate.addStatus(subtask.getStatus());
+        subtaskIndex.put(subtask);
+        countTime(aggregate, subtask);
+        return epic;
+    }
+
+    private void countTime(EpicAggregate aggregate, Subtask subtask) {
+        if (subtask.getStartTime() != null) {
+            CountedTime time = new CountedTime(subtask.getStartTime(), subtask.getEndTime());
+            subtaskTimes.put(subtask.getId(), time);
+            aggregate.addTime(time.start(), time.end());
         }
-        subtasks.put(subtask.getId(), subtask);
-        updateEpicStatus(epics.get(subtask.getEpicId()));
-        return subtask;
+    }
+
+    //returns whether subtask was counted with time
+    private boolean uncountTime(EpicAggregate aggregate, int subtaskId) {
+        CountedTime time = subtaskTimes.remove(subtaskId);
+        if (time != null) {
+            aggregate.removeTime(time.start(), time.end());
+        }
+        return time != null;
+    }
+
+    //fills empty manager with loaded tasks: every epic is calculated once after all its subtasks are linked,
+    //prioritised tasks are sorted once and the tree is built from sorted array instead of inserting one by one
+    protected void loadTasks(Collection<? extends Task> loaded, boolean parallel) {
+        for (Task task : loaded) {
+            switch (task.getType()) {
+                case TASK -> tasks.put(task.getId(), task);
+                case EPIC -> epics.put(task.getId(), (Epic) task);
+                case SUBTASK -> subtasks.put(task.getId(), (Subtask) task);
+            }
+        }
+        indexLoadedTasks(loaded, parallel);
+    }
+
+    //builds epic aggregates and prioritised tasks for tasks already in maps,
+    //loaded tasks and subtasks may be keys standing for values not decoded yet: only their id, status,
+    //time and epic are read, and prioritised tasks are looked up by id before they are returned
+    void indexLoadedTasks(Collection<? extends Task> loaded, boolean parallel) {
+        List<Task> timed = new ArrayList<>();
+        for (Task task : loaded) {
+            if (task.getType() == Type.SUBTASK) {
+                countSubtask((Subtask) task);
+            } else if (task.getType() == Type.TASK) {
+                taskIndex.put(task);
+            }
+            if (task.getType() != Type.EPIC && task.getStartTime() != null) {
+                timed.add(task);
+            }
+        }
+        epics.values().forEach(epic -> {
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        });
+        Task[] sorted = timed.toArray(Task[]::new);
+        if (parallel) {
+            Arrays.parallelSort(sorted, prioritisedTasks.comparator());
+        } else {
+            Arrays.sort(sorted, prioritisedTasks.comparator());
+        }
+        prioritisedTasks.addAll(new SortedTasks(sorted, prioritisedTasks.comparator()));
+    }
+
+    private void unlinkSubtask(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        epic.removeSubtaskId(subtask.getId());
+        EpicAggregate aggregate = getEpicAggregate(epic.getId());
+        aggregate.removeStatus(subtaskIndex.getStatus(subtask.getId()));
+        subtaskIndex.remove(subtask.getId());
+        updateEpicStatus(epic);
+        if (uncountTime(aggregate, subtask.getId())) {
+            updateEpicTime(epic);
+        }
+    }
+
+    private EpicAggregate getEpicAggregate(int epicId) {
+        return epicAggregates.computeIfAbsent(epicId, id -> new EpicAggregate());
     }
 
     //epic methods
@@ -185,8 +357,12 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void addEpic(Epic epic) {
         epic.setId(generateId());
+        //new epic has no subtasks yet, ids sent with it point to nothing, subtasks are linked by addSubtask
+        epic.clearSubtaskIds();
         updateEpicStatus(epic);
+        updateEpicTime(epic);
         epics.put(epic.getId(), epic);
+        changed(Type.EPIC, epic.getId());
     }
 
     //get epic by id
@@ -201,16 +377,25 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public List<Subtask> getEpicSubtasksById(int id) {
         Epic epic = Optional.ofNullable(epics.get(id)).orElseThrow(() -> new NotFoundException("Error: epic id:" + id + " not found"));
-        return epic.getSubtaskIds().stream().map(subtasks::get).toList();
+        //ids are sorted, so subtasks come in order they were created
+        return epic.getSubtaskIds().stream().sorted().mapToObj(subtasks::get).toList();
     }
 
     //changes epic status, depending on subtasks status
+    //full recalculation is checked when assertions are enabled, as they are in tests
     private void updateEpicStatus(Epic epic) {
+        epic.setStatus(getEpicAggregate(epic.getId()).getStatus());
+        epicIndex.put(epic);
+        assert epic.getStatus() == calculateEpicStatus(epic)
+                : "Error: epic id:" + epic.getId() + " status " + epic.getStatus() + " differs from subtasks";
+    }
+
+    private Status calculateEpicStatus(Epic epic) {
         if (epic.getSubtaskIds().isEmpty()) {
-            epic.setStatus(Status.NEW);
+            return Status.NEW;
         } else {
             Status status = null;
-            for (Integer s : epic.getSubtaskIds()) {
+            for (int s : epic.getSubtaskIds().toArray()) {
                 switch (subtasks.get(s).getStatus()) {
                     case NEW:
                         if (status == null) {
@@ -237,21 +422,26 @@ public class InMemoryTaskManager implements TaskManager {
                         break;
                 }
             }
-            epic.setStatus(status);
+            return status;
         }
     }
 
     //start - earliest subtask, end - latest subtask, duration - between start/end
-    private void calculateEpicDuration(Epic epic) {
-        List<ZonedDateTime> startTimes = new ArrayList<>();
-        List<ZonedDateTime> endTimes = new ArrayList<>();
-        epic.getSubtaskIds().stream().map(subtasks::get).filter(subtask -> subtask.getStartTime() != null).forEach(subtask -> {
-            startTimes.add(subtask.getStartTime());
-            endTimes.add(subtask.getEndTime());
-        });
-        Collections.sort(startTimes);
-        Collections.sort(endTimes);
-        epic.calculateTime(startTimes.getFirst(), endTimes.getLast());
+    //full recalculation is checked when assertions are enabled, as they are in tests
+    private void updateEpicTime(Epic epic) {
+        EpicAggregate aggregate = getEpicAggregate(epic.getId());
+        epic.calculateTime(aggregate.getStartTime(), aggregate.getEndTime());
+        epicIndex.put(epic);
+        assert epicTimeConsistent(epic)
+                : "Error: epic id:" + epic.getId() + " time " + epic.getStartTime() + " : " + epic.getEndTime() + " differs from subtasks";
+    }
+
+    private boolean epicTimeConsistent(Epic epic) {
+        List<Subtask> timedSubtasks = epic.getSubtaskIds().stream().mapToObj(subtasks::get)
+                .filter(subtask -> subtask.getStartTime() != null).toList();
+        Optional<ZonedDateTime> start = timedSubtasks.stream().map(Task::getStartTime).min(Comparator.naturalOrder());
+        Optional<ZonedDateTime> end = timedSubtasks.stream().map(Task::getEndTime).max(Comparator.naturalOrder());
+        return Objects.equals(start.orElse(null), epic.getStartTime()) && Objects.equals(end.orElse(null), epic.getEndTime());
     }
 
     //get all epics
@@ -264,8 +454,14 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteAllEpics() {
         removeTasksFromHistory(epics.keySet());
+        cleared(Type.EPIC, epics.keySet());
         epics.clear();
+        epicIndex.clear();
+        epicAggregates.clear();
+        subtaskIndex.clear();
+        subtaskTimes.clear();
         removeTasksFromHistory(subtasks.keySet());
+        cleared(Type.SUBTASK, subtasks.keySet());
         subtasks.values().stream().filter(subtask -> subtask.getStartTime() != null).forEach(prioritisedTasks::remove);
         subtasks.clear();
     }
@@ -273,14 +469,18 @@ public class InMemoryTaskManager implements TaskManager {
     //delete epic by id and linked subtask
     @Override
     public void deleteEpicById(int id) {
-        deleteSubtasksByIds(epics.get(id).getSubtaskIds());
+        Epic epic = Optional.ofNullable(epics.get(id)).orElseThrow(() -> new NotFoundException("Error: epic id:" + id + " not found"));
+        deleteSubtasksByIds(epic.getSubtaskIds());
         historyManager.remove(id);
         epics.remove(id);
+        epicIndex.remove(id);
+        removed(Type.EPIC, id);
+        epicAggregates.remove(id);
     }
 
     //delete subtasks by id
     //private method only for "delete com.yandex.app.model.Epic" cases
-    private void deleteSubtasksByIds(List<Integer> subtaskIds) {
+    private void deleteSubtasksByIds(IntSet subtaskIds) {
         subtaskIds.forEach(id -> {
             historyManager.remove(id);
             Subtask subtask = subtasks.get(id);
@@ -288,27 +488,177 @@ public class InMemoryTaskManager implements TaskManager {
                 prioritisedTasks.remove(subtask);
             }
             subtasks.remove(id);
+            subtaskIndex.remove(id);
+            subtaskTimes.remove(id);
+            removed(Type.SUBTASK, id);
         });
     }
 
-    //update epic
+    //update epic, status, time and subtasks come from subtasks, so only name and description are taken
     @Override
     public Epic updateEpic(Epic epic) {
-        Optional.ofNullable(epics.get(epic.getId())).orElseThrow(() -> new NotFoundException("Error: epic id:" + epic.getId() + " not found"));
-        epics.put(epic.getId(), epic);
-        return epic;
+        Epic oldEpic = Optional.ofNullable(epics.get(epic.getId())).orElseThrow(() -> new NotFoundException("Error: epic id:" + epic.getId() + " not found"));
+        oldEpic.setName(epic.getName());
+        oldEpic.setDescription(epic.getDescription());
+        changed(Type.EPIC, oldEpic.getId());
+        return oldEpic;
+    }
+
+    //page of tasks found through indexes, epicId does not apply to tasks
+    @Override
+    public TaskPage<Task> findTasks(TaskQuery query) {
+        requireNoEpicId(query);
+        return taskIndex.find(query, null, tasks::get);
+    }
+
+    //subtasks of one epic are taken from the epic and sorted, as an epic has few subtasks
+    @Override
+    public TaskPage<Subtask> findSubtasks(TaskQuery query) {
+        IntSet epicSubtaskIds = null;
+        if (query.epicId() != null) {
+            Epic epic = Optional.ofNullable(epics.get(query.epicId())).orElseThrow(() -> new NotFoundException("Error: epic id:" + query.epicId() + " not found"));
+            epicSubtaskIds = epic.getSubtaskIds();
+        }
+        return subtaskIndex.find(query, epicSubtaskIds, subtasks::get);
+    }
+
+    @Override
+    public TaskPage<Epic> findEpics(TaskQuery query) {
+        requireNoEpicId(query);
+        return epicIndex.find(query, null, epics::get);
+    }
+
+    private void requireNoEpicId(TaskQuery query) {
+        if (query.epicId() != null) {
+            throw new IllegalArgumentException("Error: epicId filters subtasks only");
+        }
+    }
+
+    @Override
+    public long getVersion(Type type) {
+        return collectionVersions[type.ordinal()];
+    }
+
+    @Override
+    public long getVersion(int id) {
+        return versions.get(id);
     }
 
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
 
+    @Override
+    public HistoryPage getHistoryPage(int offset, int limit) {
+        return historyManager.getHistoryPage(offset, limit);
+    }
+
     //remove tasks from history by id
-    private void removeTasksFromHistory(Set<Integer> taskIds) {
+    private void removeTasksFromHistory(IntSet taskIds) {
         taskIds.forEach(historyManager::remove);
     }
 
+    //tree is ordered by start, duration and id only, so it may hold a key loaded in place of the task
     public List<Task> getPrioritisedTasks() {
-        return prioritisedTasks.stream().toList();
+        return prioritisedTasks.stream()
+                .map(task -> task.getType() == Type.SUBTASK ? subtasks.get(task.getId()) : tasks.get(task.getId()))
+                .toList();
+    }
+
+    //sorted array seen as read-only sorted set, so TreeSet.addAll builds the tree in linear time.
+    //Range views share the array, bounds outside of a view are clamped to it
+    private static class SortedTasks extends AbstractSet<Task> implements SortedSet<Task> {
+        private final Task[] sorted;
+        private final Comparator<? super Task> comparator;
+        //view of sorted[from, to)
+        private final int from;
+        private final int to;
+
+        SortedTasks(Task[] sorted, Comparator<? super Task> comparator) {
+            this(sorted, comparator, 0, sorted.length);
+        }
+
+        private SortedTasks(Task[] sorted, Comparator<? super Task> comparator, int from, int to) {
+            this.sorted = sorted;
+            this.comparator = comparator;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return Collections.unmodifiableList(Arrays.asList(sorted).subList(from, to)).iterator();
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Task task)) {
+                return false;
+            }
+            int index = lowerBound(task);
+            return index < to && comparator.compare(sorted[index], task) == 0;
+        }
+
+        @Override
+        public Comparator<? super Task> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public Task first() {
+            if (isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return sorted[from];
+        }
+
+        @Override
+        public Task last() {
+            if (isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return sorted[to - 1];
+        }
+
+        @Override
+        public SortedSet<Task> subSet(Task fromElement, Task toElement) {
+            if (comparator.compare(fromElement, toElement) > 0) {
+                throw new IllegalArgumentException("Error: fromElement is greater than toElement");
+            }
+            return new SortedTasks(sorted, comparator, lowerBound(fromElement), lowerBound(toElement));
+        }
+
+        @Override
+        public SortedSet<Task> headSet(Task toElement) {
+            return new SortedTasks(sorted, comparator, from, lowerBound(toElement));
+        }
+
+        @Override
+        public SortedSet<Task> tailSet(Task fromElement) {
+            return new SortedTasks(sorted, comparator, lowerBound(fromElement), to);
+        }
+
+        //index of the first task in view not less than key, to if there is none
+        private int lowerBound(Task key) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(sorted[middle], key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record CountedTime(ZonedDateTime start, ZonedDateTime end) {
     }
 }
@@ -0,0 +1,188 @@
+package com.yandex.app.service;
+
+import com.yandex.app.model.Task;
+import com.yandex.app.utility.IntObjectMap;
+import com.yandex.app.utility.IntSet;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+//map whose values may still be records of a mapped binary snapshot: such value is kept as record offset
+//and decoded on first get, then it is stored as usual. Reads may run in parallel under
+//ConcurrentTaskManager read lock and decoding changes the map, so every method locks the map
+class LazyTaskMap<V extends Task> extends IntObjectMap<V> {
+    private TaskBinaryCodec.Reader snapshot;
+    //record offset by key, 0 for keys that are decoded or absent (offset 0 is snapshot magic, never a record)
+    private int[] offsets = new int[0];
+    private int pending;
+    private final Collection<V> valuesView = new Values();
+    private final IntSet keysView = new Keys();
+
+    synchronized void setSnapshot(TaskBinaryCodec.Reader snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    synchronized void putPending(int key, int offset) {
+        super.remove(key);
+        if (key >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(key + 1, offsets.length * 2));
+        }
+        if (offsets[key] == 0) {
+            pending++;
+        }
+        offsets[key] = offset;
+    }
+
+    //0 if value is decoded or absent
+    synchronized int getPendingOffset(int key) {
+        return key >= 0 && key < offsets.length ? offsets[key] : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized V get(int key) {
+        V value = super.get(key);
+        int offset = getPendingOffset(key);
+        if (value == null && offset != 0) {
+            value = (V) snapshot.taskAt(offset);
+            clearPending(key);
+            super.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized boolean containsKey(int key) {
+        return getPendingOffset(key) != 0 || super.get(key) != null;
+    }
+
+    //value still pending is replaced without decoding and is not returned
+    @Override
+    public synchronized V put(int key, V value) {
+        clearPending(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    public synchronized V remove(int key) {
+        V value = get(key);
+        super.remove(key);
+        return value;
+    }
+
+    @Override
+    public synchronized int size() {
+        return super.size() + pending;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        offsets = new int[0];
+        pending = 0;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return valuesView;
+    }
+
+    @Override
+    public IntSet keySet() {
+        return keysView;
+    }
+
+    private void clearPending(int key) {
+        if (getPendingOffset(key) != 0) {
+            offsets[key] = 0;
+            pending--;
+        }
+    }
+
+    //decoded and pending keys merged in ascending order
+    private synchronized int[] keys() {
+        int[] decoded = super.keySet().toArray();
+        int[] result = new int[decoded.length + pending];
+        int d = 0;
+        int r = 0;
+        for (int key = 0; key < offsets.length; key++) {
+            if (offsets[key] != 0) {
+                while (d < decoded.length && decoded[d] < key) {
+                    result[r++] = decoded[d++];
+                }
+                result[r++] = key;
+            }
+        }
+        while (d < decoded.length) {
+            result[r++] = decoded[d++];
+        }
+        return result;
+    }
+
+    //keys are taken when iteration starts, values are decoded as iteration reaches them
+    private class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            int[] keys = keys();
+            return new Iterator<>() {
+                private int i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < keys.length;
+                }
+
+                @Override
+                public V next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(keys[i++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return LazyTaskMap.this.size();
+        }
+    }
+
+    private class Keys implements IntSet {
+        @Override
+        public int size() {
+            return LazyTaskMap.this.size();
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return containsKey(value);
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int key : keys()) {
+                action.accept(key);
+            }
+        }
+
+        @Override
+        public int[] toArray() {
+            return keys();
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(keys());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.yandex.app.service;
+
+//task rows read from data file on start and time it took
+public record LoadReport(int rows, long nanos) {
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("loaded %d rows in %d ms, %.0f rows/s", rows, nanos / 1_000_000, rowsPerSecond());
+    }
+}
@@ -0,0 +1,20 @@
+package com.yandex.app.service;
+
+//writes of changes to data file: changes waiting to be written, writes done, changes they covered and write times
+public record PersistenceMetrics(int queueDepth, long flushes, long changesWritten, long lastFlushNanos,
+                                 long maxFlushNanos, long totalFlushNanos) {
+    public long averageFlushNanos() {
+        return flushes == 0 ? 0 : totalFlushNanos / flushes;
+    }
+
+    //more than 1 when several changes were written at once
+    public double changesPerFlush() {
+        return flushes == 0 ? 0 : (double) changesWritten / flushes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("queued %d, %d flushes of %.1f changes, flush avg %d us, max %d us", queueDepth, flushes,
+                changesPerFlush(), averageFlushNanos() / 1_000, maxFlushNanos / 1_000);
+    }
+}
@@ -0,0 +1,121 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.FsyncPolicy;
+import com.yandex.app.enums.StorageFormat;
+
+import java.time.Duration;
+
+public class PersistenceSettings {
+    //snapshot is rewritten on every change unless journal is enabled
+    private boolean journal;
+    //journal records written before it is compacted into a snapshot
+    private int journalCompactionThreshold = 10_000;
+    //views kept in memory before history is persisted, 1 persists every view
+    private int historyFlushCount = 1;
+    //views kept in memory are persisted at least this often, no timer if null
+    private Duration historyFlushInterval;
+    //snapshot is parsed in chunks on all cores, indexes are built in bulk either way
+    private boolean parallelLoad;
+    //format snapshots are written in, either format is read
+    private StorageFormat format = StorageFormat.CSV;
+    //binary snapshot is mapped and tasks are decoded on first access, epics and indexes are still built on load
+    private boolean lazyLoad;
+    //snapshot is always replaced atomically, policy decides when written data is forced to disk:
+    //NONE leaves it to OS, PER_WRITE forces every snapshot and journal append before the change returns,
+    //PERIODIC forces what was written at most fsyncInterval ago, so an OS crash loses at most that
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+    //changes are written by a background thread, changes made during a write are written together by the next one;
+    //FileBackedTaskManager.persisted() tells when they are written
+    private boolean asyncWrites;
+
+    public boolean isJournal() {
+        return journal;
+    }
+
+    public PersistenceSettings setJournal(boolean journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    public int getJournalCompactionThreshold() {
+        return journalCompactionThreshold;
+    }
+
+    public PersistenceSettings setJournalCompactionThreshold(int journalCompactionThreshold) {
+        this.journalCompactionThreshold = journalCompactionThreshold;
+        return this;
+    }
+
+    public int getHistoryFlushCount() {
+        return historyFlushCount;
+    }
+
+    public PersistenceSettings setHistoryFlushCount(int historyFlushCount) {
+        this.historyFlushCount = historyFlushCount;
+        return this;
+    }
+
+    public Duration getHistoryFlushInterval() {
+        return historyFlushInterval;
+    }
+
+    public PersistenceSettings setHistoryFlushInterval(Duration historyFlushInterval) {
+        this.historyFlushInterval = historyFlushInterval;
+        return this;
+    }
+
+    public boolean isParallelLoad() {
+        return parallelLoad;
+    }
+
+    public PersistenceSettings setParallelLoad(boolean parallelLoad) {
+        this.parallelLoad = parallelLoad;
+        return this;
+    }
+
+    public StorageFormat getFormat() {
+        return format;
+    }
+
+    public PersistenceSettings setFormat(StorageFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    public boolean isLazyLoad() {
+        return lazyLoad;
+    }
+
+    public PersistenceSettings setLazyLoad(boolean lazyLoad) {
+        this.lazyLoad = lazyLoad;
+        return this;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public PersistenceSettings setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+        return this;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public PersistenceSettings setFsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+        return this;
+    }
+
+    public boolean isAsyncWrites() {
+        return asyncWrites;
+    }
+
+    public PersistenceSettings setAsyncWrites(boolean asyncWrites) {
+        this.asyncWrites = asyncWrites;
+        return this;
+    }
+}
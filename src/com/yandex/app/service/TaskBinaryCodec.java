@@ -0,0 +1,352 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.enums.Type;
+import com.yandex.app.exception.ManagerSaveException;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//binary snapshot, version 1:
+//  magic "TKBN", version byte
+//  zone table: count, zone ids
+//  tasks: count, then for every task its record length and record:
+//    type, id, status, name, description, duration minutes, zone (0 - no start time, otherwise table index + 1),
+//    start epoch second and nano if there is zone, epic id for subtask
+//  history: count, ids
+//ints are varints, signed longs are zigzag varints, strings are UTF-8 with length + 1 (0 is null)
+class TaskBinaryCodec {
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = {'T', 'K', 'B', 'N'};
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private TaskBinaryCodec() {
+    }
+
+    static boolean isBinary(byte[] head) {
+        return head.length >= MAGIC.length && Arrays.equals(head, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    static byte[] write(List<Task> tasks, List<Task> history) {
+        Builder builder = new Builder(new ZoneId[0]);
+        tasks.forEach(builder::add);
+        return builder.build(history);
+    }
+
+    //task as a snapshot of its own in base64, so it fits one line of text journal with any name and description
+    static String encodeTask(Task task) {
+        return Base64.getEncoder().encodeToString(write(List.of(task), List.of()));
+    }
+
+    static Task decodeTask(String text) {
+        return new Reader(ByteBuffer.wrap(Base64.getDecoder().decode(text))).nextTask();
+    }
+
+    //snapshot assembled task by task: zone table goes before tasks, so records are buffered until build
+    static class Builder {
+        private final Map<ZoneId, Integer> zones = new HashMap<>();
+        private final List<ZoneId> zoneTable = new ArrayList<>();
+        private final Writer records = new Writer();
+        private final Writer record = new Writer();
+        private int count;
+
+        //known zones keep their indexes, so records copied from a snapshot with them stay valid
+        Builder(ZoneId[] knownZones) {
+            for (ZoneId zone : knownZones) {
+                zoneIndex(zone);
+            }
+        }
+
+        void add(Task task) {
+            record.size = 0;
+            writeTask(record, task);
+            records.varInt(record.size);
+            records.bytes(record.buffer, record.size);
+            count++;
+        }
+
+        //record is copied from source as is, without decoding it
+        void addRecord(ByteBuffer source, int position, int length) {
+            records.varInt(length);
+            records.ensure(length);
+            source.get(position, records.buffer, records.size, length);
+            records.size += length;
+            count++;
+        }
+
+        byte[] build(List<Task> history) {
+            Writer header = new Writer();
+            header.bytes(MAGIC, MAGIC.length);
+            header.varInt(VERSION);
+            header.varInt(zoneTable.size());
+            zoneTable.forEach(zone -> header.string(zone.getId()));
+            header.varInt(count);
+            Writer footer = new Writer();
+            footer.varInt(history.size());
+            history.forEach(task -> footer.varInt(task.getId()));
+            byte[] result = new byte[header.size + records.size + footer.size];
+            System.arraycopy(header.buffer, 0, result, 0, header.size);
+            System.arraycopy(records.buffer, 0, result, header.size, records.size);
+            System.arraycopy(footer.buffer, 0, result, header.size + records.size, footer.size);
+            return result;
+        }
+
+        private int zoneIndex(ZoneId zone) {
+            return zones.computeIfAbsent(zone, z -> {
+                zoneTable.add(z);
+                return zoneTable.size() - 1;
+            });
+        }
+
+        private void writeTask(Writer writer, Task task) {
+            writer.varInt(task.getType().ordinal());
+            writer.varInt(task.getId());
+            writer.varInt(task.getStatus().ordinal());
+            writer.string(task.getName());
+            writer.string(task.getDescription());
+            writer.varLong(task.getDuration().toMinutes());
+            ZonedDateTime startTime = task.getStartTime();
+            if (startTime == null) {
+                writer.varInt(0);
+            } else {
+                writer.varInt(zoneIndex(startTime.getZone()) + 1);
+                writer.varLong(startTime.toEpochSecond());
+                writer.varInt(startTime.getNano());
+            }
+            if (task.getType() == Type.SUBTASK) {
+                writer.varInt(((Subtask) task).getEpicId());
+            }
+        }
+    }
+
+    //reads snapshot from buffer positioned at its start
+    static class Reader {
+        private final ByteBuffer buffer;
+        private final ZoneId[] zones;
+        private final int taskCount;
+        private int tasksRead;
+        //position of the record returned by last nextTask
+        private int recordOffset;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            try {
+                byte[] magic = new byte[MAGIC.length];
+                buffer.get(magic);
+                if (!isBinary(magic)) {
+                    throw new ManagerSaveException("Error: not a binary snapshot");
+                }
+                int version = varInt();
+                if (version != VERSION) {
+                    throw new ManagerSaveException("Error: unsupported snapshot version " + version);
+                }
+                zones = new ZoneId[varInt()];
+                for (int i = 0; i < zones.length; i++) {
+                    zones[i] = ZoneId.of(string());
+                }
+                taskCount = varInt();
+            } catch (BufferUnderflowException e) {
+                throw new ManagerSaveException("Error: binary snapshot is truncated");
+            }
+        }
+
+        int getTaskCount() {
+            return taskCount;
+        }
+
+        ZoneId[] getZones() {
+            return zones.clone();
+        }
+
+        //null when all tasks are read
+        Task nextTask() {
+            return nextTask(true);
+        }
+
+        //without text name and description are skipped and left null, the rest of task is read
+        Task nextTask(boolean text) {
+            if (tasksRead == taskCount) {
+                return null;
+            }
+            tasksRead++;
+            recordOffset = buffer.position();
+            return readRecord(text);
+        }
+
+        int getRecordOffset() {
+            return recordOffset;
+        }
+
+        //reads task at offset taken from getRecordOffset, position of sequential reading is kept,
+        //buffer is shared, so calls are serialized
+        synchronized Task taskAt(int offset) {
+            int position = buffer.position();
+            buffer.position(offset);
+            try {
+                return readRecord(true);
+            } finally {
+                buffer.position(position);
+            }
+        }
+
+        synchronized void copyRecord(int offset, Builder builder) {
+            int position = buffer.position();
+            buffer.position(offset);
+            int length = varInt();
+            builder.addRecord(buffer, buffer.position(), length);
+            buffer.position(position);
+        }
+
+        private Task readRecord(boolean text) {
+            try {
+                int length = varInt();
+                int end = buffer.position() + length;
+                Task task = readTask(text);
+                //fields added by later versions are skipped
+                buffer.position(end);
+                return task;
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new ManagerSaveException("Error: binary snapshot is corrupted at position " + recordOffset);
+            }
+        }
+
+        //history goes after all tasks, unread tasks are skipped
+        int[] readHistory() {
+            try {
+                for (; tasksRead < taskCount; tasksRead++) {
+                    buffer.position(buffer.position() + varInt());
+                }
+                int[] ids = new int[varInt()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = varInt();
+                }
+                return ids;
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new ManagerSaveException("Error: binary snapshot is truncated");
+            }
+        }
+
+        private Task readTask(boolean text) {
+            Type type = TYPES[varInt()];
+            int id = varInt();
+            Status status = STATUSES[varInt()];
+            String name = text ? string() : skipString();
+            String description = text ? string() : skipString();
+            Duration duration = TaskCsvParser.duration(varLong());
+            int zone = varInt();
+            ZonedDateTime startTime = null;
+            if (zone > 0) {
+                long epochSecond = varLong();
+                startTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, varInt()), zones[zone - 1]);
+            }
+            return switch (type) {
+                case TASK -> new Task(id, name, description, status, duration, startTime);
+                case EPIC -> new Epic(id, name, description, status, duration, startTime);
+                case SUBTASK -> new Subtask(id, name, description, varInt(), status, duration, startTime);
+            };
+        }
+
+        private int varInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Error: varint is too long");
+        }
+
+        private long varLong() {
+            long value = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (value >>> 1) ^ -(value & 1);
+                }
+            }
+            throw new IllegalArgumentException("Error: varint is too long");
+        }
+
+        private String string() {
+            int length = varInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private String skipString() {
+            int length = varInt() - 1;
+            if (length > 0) {
+                buffer.position(buffer.position() + length);
+            }
+            return null;
+        }
+    }
+
+    private static class Writer {
+        private byte[] buffer = new byte[1 << 12];
+        private int size;
+
+        void varInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void varLong(long value) {
+            ensure(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[size++] = (byte) zigzag;
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varInt(bytes.length + 1);
+            bytes(bytes, bytes.length);
+        }
+
+        void bytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        private void ensure(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+    }
+}
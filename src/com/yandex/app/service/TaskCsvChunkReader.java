@@ -0,0 +1,131 @@
+package com.yandex.app.service;
+
+import com.yandex.app.model.Task;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+//reads csv snapshot mapped into memory: rows are split in line-aligned chunks parsed on fork-join pool,
+//line breaks are single bytes in UTF-8, so every chunk decodes on its own
+class TaskCsvChunkReader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private final List<Task> rows = new ArrayList<>();
+    private int[] historyIds = new int[0];
+
+    //mapped buffer is limited to 2GB, such files are left to TaskCsvReader
+    static boolean canRead(long size) {
+        return size <= Integer.MAX_VALUE;
+    }
+
+    TaskCsvChunkReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            int size = (int) channel.size();
+            if (size == 0) {
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            //header line, rows, blank line, history line, line breaks after history line are skipped
+            int rowsStart = nextLine(buffer, 0, size);
+            int rowsEnd = size;
+            int contentEnd = size;
+            while (contentEnd > 0 && (buffer.get(contentEnd - 1) == '\n' || buffer.get(contentEnd - 1) == '\r')) {
+                contentEnd--;
+            }
+            int lastBreak = previousBreak(buffer, contentEnd - 1);
+            if (lastBreak >= rowsStart && isBlankLineBefore(buffer, lastBreak)) {
+                rowsEnd = lastBreak;
+                historyIds = readIds(buffer, lastBreak + 1, contentEnd);
+            }
+            if (rowsStart < rowsEnd) {
+                readRows(buffer, rowsStart, rowsEnd);
+            }
+        }
+    }
+
+    //rows in file order
+    List<Task> getRows() {
+        return rows;
+    }
+
+    int[] getHistoryIds() {
+        return historyIds;
+    }
+
+    private void readRows(MappedByteBuffer buffer, int start, int end) {
+        int chunks = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L,
+                (end - start) / MIN_CHUNK_SIZE));
+        int[] bounds = new int[chunks + 1];
+        bounds[0] = start;
+        bounds[chunks] = end;
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = Math.max(bounds[i - 1], nextLine(buffer, start + (int) ((long) (end - start) * i / chunks), end));
+        }
+        IntStream.range(0, chunks).parallel()
+                .mapToObj(i -> readChunk(buffer, bounds[i], bounds[i + 1]))
+                .forEachOrdered(rows::addAll);
+    }
+
+    private static List<Task> readChunk(MappedByteBuffer buffer, int start, int end) {
+        List<Task> chunkRows = new ArrayList<>();
+        if (start == end) {
+            return chunkRows;
+        }
+        CharBuffer chars = StandardCharsets.UTF_8.decode(buffer.slice(start, end - start));
+        char[] array = chars.array();
+        int limit = chars.limit();
+        TaskCsvParser parser = new TaskCsvParser();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || array[i] == '\n') {
+                int lineEnd = i > lineStart && array[i - 1] == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart) {
+                    chunkRows.add(parser.parse(array, lineStart, lineEnd));
+                }
+                lineStart = i + 1;
+            }
+        }
+        return chunkRows;
+    }
+
+    private static int[] readIds(MappedByteBuffer buffer, int start, int end) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(buffer.slice(start, end - start));
+        return TaskCsvParser.parseIds(chars.array(), 0, chars.limit());
+    }
+
+    //position after next line break, end if there is none
+    private static int nextLine(MappedByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static int previousBreak(MappedByteBuffer buffer, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlankLineBefore(MappedByteBuffer buffer, int lineBreak) {
+        int i = lineBreak - 1;
+        if (i >= 0 && buffer.get(i) == '\r') {
+            i--;
+        }
+        return i < 0 || buffer.get(i) == '\n';
+    }
+}
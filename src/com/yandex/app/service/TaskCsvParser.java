@@ -0,0 +1,219 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.enums.Type;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+//parses csv task rows in place from a char range: numbers are parsed without substrings,
+//enum names are matched against their constants and the last seen time zone is reused
+class TaskCsvParser {
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final char[] NULL = "null".toCharArray();
+    //durations up to a day are shared between rows
+    private static final Duration[] DURATIONS = new Duration[24 * 60 + 1];
+
+    static {
+        for (int i = 0; i < DURATIONS.length; i++) {
+            DURATIONS[i] = Duration.ofMinutes(i);
+        }
+    }
+
+    //zone text after local time, e.g. "+03:00[Europe/Moscow]", rows usually share one zone
+    private char[] zoneText = new char[0];
+    private ZoneOffset zoneOffset;
+    private ZoneId zoneId;
+    private char[] chars;
+    private int position;
+    private int end;
+
+    Task parse(String line) {
+        char[] lineChars = line.toCharArray();
+        return parse(lineChars, 0, lineChars.length);
+    }
+
+    //row: id,type,name,status,description,duration,startTime,epic
+    Task parse(char[] chars, int start, int end) {
+        this.chars = chars;
+        this.position = start;
+        this.end = end;
+        int id = (int) nextLong();
+        Type type = nextEnum(TYPES);
+        String name = nextString();
+        Status status = nextEnum(STATUSES);
+        String description = nextString();
+        Duration duration = nextDuration();
+        ZonedDateTime startTime = nextTime();
+        return switch (type) {
+            case TASK -> new Task(id, name, description, status, duration, startTime);
+            case EPIC -> new Epic(id, name, description, status, duration, startTime);
+            case SUBTASK -> new Subtask(id, name, description, (int) nextLong(), status, duration, startTime);
+        };
+    }
+
+    //history line: ids separated by commas, with trailing comma
+    static int[] parseIds(char[] chars, int start, int end) {
+        int[] ids = new int[16];
+        int count = 0;
+        int value = 0;
+        boolean digits = false;
+        for (int i = start; i <= end; i++) {
+            if (i == end || chars[i] == ',') {
+                if (digits) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = value;
+                }
+                value = 0;
+                digits = false;
+            } else {
+                value = value * 10 + digit(chars[i]);
+                digits = true;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    //end of current field, position is moved past its comma
+    private int fieldEnd() {
+        int start = position;
+        int i = start;
+        while (i < end && chars[i] != ',') {
+            i++;
+        }
+        position = i + 1;
+        return i;
+    }
+
+    private long nextLong() {
+        int start = position;
+        int fieldEnd = fieldEnd();
+        if (start == fieldEnd) {
+            throw new NumberFormatException("Error: empty number");
+        }
+        boolean negative = chars[start] == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < fieldEnd; i++) {
+            value = value * 10 + digit(chars[i]);
+        }
+        return negative ? -value : value;
+    }
+
+    private String nextString() {
+        int start = position;
+        return new String(chars, start, fieldEnd() - start);
+    }
+
+    private <E extends Enum<E>> E nextEnum(E[] constants) {
+        int start = position;
+        int fieldEnd = fieldEnd();
+        for (E constant : constants) {
+            if (matches(start, fieldEnd, constant.name())) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Error: unknown " + constants[0].getDeclaringClass().getSimpleName()
+                + " " + new String(chars, start, fieldEnd - start));
+    }
+
+    private Duration nextDuration() {
+        return duration(nextLong());
+    }
+
+    //shared with binary snapshot reader
+    static Duration duration(long minutes) {
+        return minutes >= 0 && minutes < DURATIONS.length ? DURATIONS[(int) minutes] : Duration.ofMinutes(minutes);
+    }
+
+    //ZonedDateTime.toString format: uuuu-MM-ddTHH:mm[:ss[.fraction]]offset[[region]]
+    private ZonedDateTime nextTime() {
+        int start = position;
+        int fieldEnd = fieldEnd();
+        if (Arrays.equals(chars, start, fieldEnd, NULL, 0, NULL.length)) {
+            return null;
+        }
+        //years beyond 4 digits and other rare forms are left to the standard parser
+        if (fieldEnd - start < 17 || chars[start + 4] != '-' || chars[start + 10] != 'T') {
+            return ZonedDateTime.parse(new String(chars, start, fieldEnd - start));
+        }
+        int year = number(start, 4);
+        int month = number(start + 5, 2);
+        int day = number(start + 8, 2);
+        int hour = number(start + 11, 2);
+        int minute = number(start + 14, 2);
+        int second = 0;
+        int nano = 0;
+        int i = start + 16;
+        if (i < fieldEnd && chars[i] == ':') {
+            second = number(i + 1, 2);
+            i += 3;
+            if (i < fieldEnd && chars[i] == '.') {
+                int digits = 0;
+                i++;
+                while (i < fieldEnd && chars[i] >= '0' && chars[i] <= '9') {
+                    nano = nano * 10 + digit(chars[i++]);
+                    digits++;
+                }
+                for (; digits < 9; digits++) {
+                    nano *= 10;
+                }
+            }
+        }
+        resolveZone(i, fieldEnd);
+        //same resolution as ZonedDateTime.parse: instant from local time and offset, then zone rules
+        return ZonedDateTime.ofInstant(LocalDateTime.of(year, month, day, hour, minute, second, nano), zoneOffset, zoneId);
+    }
+
+    private void resolveZone(int start, int end) {
+        if (Arrays.equals(chars, start, end, zoneText, 0, zoneText.length)) {
+            return;
+        }
+        String text = new String(chars, start, end - start);
+        int region = text.indexOf('[');
+        try {
+            zoneOffset = ZoneOffset.of(region < 0 ? text : text.substring(0, region));
+            zoneId = region < 0 ? zoneOffset : ZoneId.of(text.substring(region + 1, text.length() - 1));
+        } catch (RuntimeException e) {
+            throw new DateTimeParseException("Error: unknown zone " + text, text, 0, e);
+        }
+        zoneText = Arrays.copyOfRange(chars, start, end);
+    }
+
+    private boolean matches(int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (chars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int number(int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            value = value * 10 + digit(chars[i]);
+        }
+        return value;
+    }
+
+    private static int digit(char c) {
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Error: not a digit '" + c + "'");
+        }
+        return c - '0';
+    }
+}
@@ -0,0 +1,91 @@
+package com.yandex.app.service;
+
+import com.yandex.app.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+//streaming reader of csv snapshot: lines are found in a large char buffer and parsed there, without line strings
+class TaskCsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private final Reader reader;
+    private final TaskCsvParser parser = new TaskCsvParser();
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+    private int lineStart;
+    private int lineEnd;
+
+    TaskCsvReader(Path path) throws IOException {
+        reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8);
+    }
+
+    //moves to next line, false at end of file
+    boolean nextLine() throws IOException {
+        while (true) {
+            for (int i = position; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(i, i + 1);
+                    return true;
+                }
+            }
+            if (eof) {
+                if (position == limit) {
+                    return false;
+                }
+                //last line without line break
+                setLine(limit, limit);
+                return true;
+            }
+            fill();
+        }
+    }
+
+    boolean isBlankLine() {
+        return lineStart == lineEnd;
+    }
+
+    Task readTask() {
+        return parser.parse(buffer, lineStart, lineEnd);
+    }
+
+    int[] readIds() {
+        return TaskCsvParser.parseIds(buffer, lineStart, lineEnd);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void setLine(int end, int next) {
+        lineStart = position;
+        lineEnd = end > lineStart && buffer[end - 1] == '\r' ? end - 1 : end;
+        position = next;
+    }
+
+    //keeps unfinished line at the start of buffer, buffer grows only for lines longer than it
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.utility.IntObjectMap;
+import com.yandex.app.utility.IntSet;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+//ids of one task type by status and by start time, so a page of TaskQuery is found by walking from its cursor
+//instead of filtering every task. Ids are sequential, so id sets are bit sets.
+//Starts are also kept per status, so a page by status and start costs its own size rather than the whole range.
+//Status and start each id was indexed with are kept, as task may be changed in place before update
+class TaskIndex {
+    private static final Status[] STATUSES = Status.values();
+    private final BitSet ids = new BitSet();
+    private final BitSet[] byStatus = new BitSet[STATUSES.length];
+    private final TreeSet<TimeKey> byStart = new TreeSet<>();
+    private final List<TreeSet<TimeKey>> byStatusStart = new ArrayList<>(STATUSES.length);
+    private final IntObjectMap<Status> statuses = new IntObjectMap<>();
+    private final IntObjectMap<TimeKey> starts = new IntObjectMap<>();
+
+    TaskIndex() {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new BitSet();
+            byStatusStart.add(new TreeSet<>());
+        }
+    }
+
+    //adds task or moves it to its current status and start
+    void put(Task task) {
+        int id = task.getId();
+        ids.set(id);
+        Status status = task.getStatus();
+        Status oldStatus = status == null ? statuses.remove(id) : statuses.put(id, status);
+        if (oldStatus != status) {
+            if (oldStatus != null) {
+                byStatus[oldStatus.ordinal()].clear(id);
+            }
+            if (status != null) {
+                byStatus[status.ordinal()].set(id);
+            }
+        }
+        TimeKey start = task.getStartTime() == null ? null : new TimeKey(task.getStartTime().toInstant(), id);
+        TimeKey oldStart = start == null ? starts.remove(id) : starts.put(id, start);
+        boolean startChanged = !Objects.equals(oldStart, start);
+        if (startChanged) {
+            if (oldStart != null) {
+                byStart.remove(oldStart);
+            }
+            if (start != null) {
+                byStart.add(start);
+            }
+        }
+        if (startChanged || oldStatus != status) {
+            if (oldStart != null && oldStatus != null) {
+                byStatusStart.get(oldStatus.ordinal()).remove(oldStart);
+            }
+            if (start != null && status != null) {
+                byStatusStart.get(status.ordinal()).add(start);
+            }
+        }
+    }
+
+    void remove(int id) {
+        ids.clear(id);
+        Status status = statuses.remove(id);
+        if (status != null) {
+            byStatus[status.ordinal()].clear(id);
+        }
+        TimeKey start = starts.remove(id);
+        if (start != null) {
+            byStart.remove(start);
+            if (status != null) {
+                byStatusStart.get(status.ordinal()).remove(start);
+            }
+        }
+    }
+
+    void clear() {
+        ids.clear();
+        for (BitSet statusIds : byStatus) {
+            statusIds.clear();
+        }
+        byStart.clear();
+        for (TreeSet<TimeKey> statusStarts : byStatusStart) {
+            statusStarts.clear();
+        }
+        statuses.clear();
+        starts.clear();
+    }
+
+    //status task was last indexed with, null if it is not indexed
+    Status getStatus(int id) {
+        return statuses.get(id);
+    }
+
+    //page of query, candidates narrow it down to given ids and are sorted here, so they should be few, null for all.
+    //Ids are turned to tasks by values only for the page itself
+    <T> TaskPage<T> find(TaskQuery query, IntSet candidates, IntFunction<T> values) {
+        if (candidates != null) {
+            return findAmong(query, candidates, values);
+        }
+        return query.byStartTime() ? findByStart(query, values) : findById(query, values);
+    }
+
+    private <T> TaskPage<T> findById(TaskQuery query, IntFunction<T> values) {
+        BitSet source = query.status() == null ? ids : byStatus[query.status().ordinal()];
+        int id = nextId(source, query.cursor() == null ? -1 : parseIdCursor(query.cursor()));
+        List<T> page = new ArrayList<>();
+        int last = -1;
+        while (id >= 0 && page.size() < query.limit()) {
+            page.add(values.apply(id));
+            last = id;
+            id = nextId(source, id);
+        }
+        return new TaskPage<>(page, id >= 0 ? String.valueOf(last) : null);
+    }
+
+    private <T> TaskPage<T> findByStart(TaskQuery query, IntFunction<T> values) {
+        NavigableSet<TimeKey> range = query.status() == null ? byStart : byStatusStart.get(query.status().ordinal());
+        TimeKey from = query.from() == null ? null : TimeKey.first(query.from());
+        TimeKey after = query.cursor() == null ? null : parseTimeCursor(query.cursor());
+        if (after != null && (from == null || after.compareTo(from) >= 0)) {
+            range = range.tailSet(after, false);
+        } else if (from != null) {
+            range = range.tailSet(from, true);
+        }
+        if (query.to() != null) {
+            range = range.headSet(TimeKey.first(query.to()), false);
+        }
+        List<T> page = new ArrayList<>();
+        TimeKey last = null;
+        Iterator<TimeKey> keys = range.iterator();
+        while (keys.hasNext()) {
+            TimeKey key = keys.next();
+            if (page.size() == query.limit()) {
+                return new TaskPage<>(page, last.toCursor());
+            }
+            page.add(values.apply(key.id()));
+            last = key;
+        }
+        return new TaskPage<>(page, null);
+    }
+
+    //candidates are filtered and sorted in full, cost depends on their number rather than on all tasks
+    private <T> TaskPage<T> findAmong(TaskQuery query, IntSet candidates, IntFunction<T> values) {
+        TimeKey from = query.from() == null ? null : TimeKey.first(query.from());
+        TimeKey to = query.to() == null ? null : TimeKey.first(query.to());
+        List<TimeKey> matched = new ArrayList<>();
+        for (int id : candidates.toArray()) {
+            if (query.status() != null && statuses.get(id) != query.status()) {
+                continue;
+            }
+            if (query.byStartTime()) {
+                TimeKey start = starts.get(id);
+                if (start == null || from != null && start.compareTo(from) < 0 || to != null && start.compareTo(to) >= 0) {
+                    continue;
+                }
+                matched.add(start);
+            } else {
+                matched.add(new TimeKey(Instant.EPOCH, id));
+            }
+        }
+        TimeKey[] sorted = matched.toArray(TimeKey[]::new);
+        Arrays.sort(sorted);
+        int position = 0;
+        if (query.cursor() != null) {
+            TimeKey after = query.byStartTime() ? parseTimeCursor(query.cursor())
+                    : new TimeKey(Instant.EPOCH, parseIdCursor(query.cursor()));
+            position = Arrays.binarySearch(sorted, after);
+            position = position >= 0 ? position + 1 : -position - 1;
+        }
+        int end = (int) Math.min(sorted.length, (long) position + query.limit());
+        List<T> page = new ArrayList<>(end - position);
+        for (int i = position; i < end; i++) {
+            page.add(values.apply(sorted[i].id()));
+        }
+        String next = null;
+        if (end < sorted.length) {
+            next = query.byStartTime() ? sorted[end - 1].toCursor() : String.valueOf(sorted[end - 1].id());
+        }
+        return new TaskPage<>(page, next);
+    }
+
+    //next set bit after id, -1 if none
+    private static int nextId(BitSet source, int id) {
+        return id == Integer.MAX_VALUE ? -1 : source.nextSetBit(id + 1);
+    }
+
+    private static int parseIdCursor(String cursor) {
+        try {
+            int id = Integer.parseInt(cursor);
+            if (id >= 0) {
+                return id;
+            }
+        } catch (NumberFormatException ignored) {
+            //reported below
+        }
+        throw new IllegalArgumentException("Error: bad cursor " + cursor);
+    }
+
+    //epoch seconds, nanos and id separated by dots
+    private static TimeKey parseTimeCursor(String cursor) {
+        String[] parts = cursor.split("\\.");
+        if (parts.length == 3) {
+            try {
+                int id = Integer.parseInt(parts[2]);
+                Instant start = Instant.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+                if (id >= 0) {
+                    return new TimeKey(start, id);
+                }
+            } catch (RuntimeException ignored) {
+                //reported below
+            }
+        }
+        throw new IllegalArgumentException("Error: bad cursor " + cursor);
+    }
+
+    //start time index entry, ordered by start then id
+    private record TimeKey(Instant start, int id) implements Comparable<TimeKey> {
+        //before every task starting at time
+        static TimeKey first(ZonedDateTime time) {
+            return new TimeKey(time.toInstant(), Integer.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int result = start.compareTo(other.start);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+
+        String toCursor() {
+            return start.getEpochSecond() + "." + start.getNano() + "." + id;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.yandex.app.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.*;
+
+//append-only log of task changes, one record per line
+class TaskJournal implements AutoCloseable {
+    private final Path path;
+    private FileChannel channel;
+    private int size;
+
+    TaskJournal(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+    }
+
+    void append(List<String> records) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        records.forEach(record -> sb.append(record).append('\n'));
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        size += records.size();
+    }
+
+    //appended records reach the disk, not only OS cache
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    //records appended since journal was opened or rotated
+    int size() {
+        return size;
+    }
+
+    //move written records to target file and start an empty journal
+    void rotate(Path target) throws IOException {
+        channel.close();
+        Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+        size = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //read complete records, last record is skipped if it was torn by a crash.
+    //Torn part is cut off by bytes before decoding, as it may end in the middle of a multi-byte character
+    static void replay(Path path, Consumer<String> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel fc = FileChannel.open(path, READ)) {
+            long complete = completeLength(fc);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(fc));
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            for (long i = 0; i < complete; i++) {
+                int b = in.read();
+                if (b != '\n') {
+                    record.write(b);
+                } else if (record.size() > 0) {
+                    consumer.accept(record.toString(StandardCharsets.UTF_8));
+                    record.reset();
+                }
+            }
+        }
+    }
+
+    //bytes up to and including the last line break
+    private static long completeLength(FileChannel fc) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(4096);
+        long end = fc.size();
+        while (end > 0) {
+            long start = Math.max(0, end - chunk.capacity());
+            chunk.clear().limit((int) (end - start));
+            while (chunk.hasRemaining()) {
+                if (fc.read(chunk, start + chunk.position()) < 0) {
+                    throw new EOFException("Error: journal shrank while read");
+                }
+            }
+            for (int i = chunk.limit() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.yandex.app.service;
 
+import com.yandex.app.enums.Type;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
@@ -68,7 +69,23 @@ public interface TaskManager {
     //update epic
     Epic updateEpic(Epic epic);
 
+    //page of tasks, subtasks or epics matching query, see TaskQuery
+    TaskPage<Task> findTasks(TaskQuery query);
+
+    TaskPage<Subtask> findSubtasks(TaskQuery query);
+
+    TaskPage<Epic> findEpics(TaskQuery query);
+
+    //version of tasks, subtasks or epics, it changes on every change of them and never comes back to old value
+    long getVersion(Type type);
+
+    //version of task, subtask or epic by id, 0 if it has not changed since manager was created or loaded
+    long getVersion(int id);
+
     List<Task> getHistory();
 
+    //page of history, oldest view first, with history size, see HistoryManager.getHistoryPage(int, int)
+    HistoryPage getHistoryPage(int offset, int limit);
+
     List<Task> getPrioritisedTasks();
 }
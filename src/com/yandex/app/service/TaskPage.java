@@ -0,0 +1,7 @@
+package com.yandex.app.service;
+
+import java.util.List;
+
+//tasks found by TaskQuery, nextCursor is null on the last page
+public record TaskPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,25 @@
+package com.yandex.app.service;
+
+import com.yandex.app.enums.Status;
+
+import java.time.ZonedDateTime;
+
+//filter and page of a list request, null fields do not filter.
+//from and to bound start time, from inclusive and to exclusive, tasks without start time do not match them.
+//Tasks come in id order, or in start time order when from or to is set.
+//cursor is TaskPage.nextCursor of the previous page of the same query, null for the first page
+public record TaskQuery(Status status, Integer epicId, ZonedDateTime from, ZonedDateTime to,
+                        String cursor, int limit) {
+    public TaskQuery {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Error: limit has to be positive, got " + limit);
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Error: from " + from + " is after to " + to);
+        }
+    }
+
+    public boolean byStartTime() {
+        return from != null || to != null;
+    }
+}
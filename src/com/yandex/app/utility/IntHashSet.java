@@ -0,0 +1,175 @@
+package com.yandex.app.utility;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+//open addressing set of ints with linear probing, values are not boxed and removal is O(1)
+public class IntHashSet implements IntSet {
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 8;
+    //0 marks free slot, so it is kept outside the table
+    private boolean containsFree;
+    private int[] keys;
+    private int mask;
+    //values in table, not counting 0
+    private int size;
+
+    public IntHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    public IntHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public boolean add(int value) {
+        if (value == FREE) {
+            boolean added = !containsFree;
+            containsFree = true;
+            return added;
+        }
+        int slot = slot(value);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = value;
+        //table is kept at most half full, so probe chains stay short
+        if (++size > keys.length / 2) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value == FREE) {
+            boolean removed = containsFree;
+            containsFree = false;
+            return removed;
+        }
+        int slot = slot(value);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == value) {
+                shiftKeys(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        containsFree = false;
+        size = 0;
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public int size() {
+        return containsFree ? size + 1 : size;
+    }
+
+    @Override
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+        int slot = slot(value);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        if (containsFree) {
+            action.accept(FREE);
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                action.accept(key);
+            }
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] values = new int[size()];
+        int i = 0;
+        if (containsFree) {
+            values[i++] = FREE;
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                values[i++] = key;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        int[] values = toArray();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+
+    //moves following keys of the probe chain into freed slot, so no deleted markers are left
+    private void shiftKeys(int free) {
+        int slot = free;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int key = keys[slot];
+            if (key == FREE) {
+                keys[free] = FREE;
+                return;
+            }
+            //key may move back only if its home slot is not between freed slot and its current slot
+            int home = slot(key);
+            boolean movable = free <= slot ? home <= free || home > slot : home <= free && home > slot;
+            if (movable) {
+                keys[free] = key;
+                free = slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        allocate(capacity);
+        for (int key : oldKeys) {
+            if (key != FREE) {
+                int slot = slot(key);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(int value) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,79 @@
+package com.yandex.app.utility;
+
+import java.util.Arrays;
+
+//map from non-negative int to long laid out as IntObjectMap, with values in long pages, so nothing is boxed.
+//0 stands for no value: get returns it for absent key and putting it removes the key
+public class IntLongMap {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private long[][] pages = new long[1][];
+    //values in every page, page is released when it drops to 0
+    private int[] pageSizes = new int[1];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int key) {
+        long[] page = page(key);
+        return page == null ? 0 : page[key & PAGE_MASK];
+    }
+
+    //returns previous value or 0
+    public long put(int key, long value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Error: negative key:" + key);
+        }
+        if (value == 0) {
+            return remove(key);
+        }
+        int pageIndex = key >>> PAGE_BITS;
+        if (pageIndex >= pages.length) {
+            int length = Math.max(pageIndex + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            pageSizes = Arrays.copyOf(pageSizes, length);
+        }
+        long[] page = pages[pageIndex];
+        if (page == null) {
+            page = new long[PAGE_SIZE];
+            pages[pageIndex] = page;
+        }
+        long previous = page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = value;
+        if (previous == 0) {
+            pageSizes[pageIndex]++;
+            size++;
+        }
+        return previous;
+    }
+
+    //returns removed value or 0
+    public long remove(int key) {
+        long[] page = page(key);
+        if (page == null || page[key & PAGE_MASK] == 0) {
+            return 0;
+        }
+        long previous = page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = 0;
+        size--;
+        int pageIndex = key >>> PAGE_BITS;
+        if (--pageSizes[pageIndex] == 0) {
+            pages[pageIndex] = null;
+        }
+        return previous;
+    }
+
+    public void clear() {
+        pages = new long[1][];
+        pageSizes = new int[1];
+        size = 0;
+    }
+
+    private long[] page(int key) {
+        int pageIndex = key >>> PAGE_BITS;
+        return key < 0 || pageIndex >= pages.length ? null : pages[pageIndex];
+    }
+}
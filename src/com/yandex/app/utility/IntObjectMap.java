@@ -0,0 +1,215 @@
+package com.yandex.app.utility;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+//map from non-negative int to object, made for sequential ids: value is kept in array slot of its key,
+//so there is no hashing, no boxing and no entry objects, and iteration goes in ascending key order.
+//array is split in pages allocated on first put and released when emptied, so deleted id ranges take no memory
+public class IntObjectMap<V> {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private Object[][] pages = new Object[1][];
+    //values in every page, page is released when it drops to 0
+    private int[] pageSizes = new int[1];
+    private int size;
+    private final Collection<V> valuesView = new Values();
+    private final IntSet keysView = new Keys();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Object[] page = page(key);
+        return page == null ? null : (V) page[key & PAGE_MASK];
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    //returns previous value or null, null values are not allowed
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Error: negative key:" + key);
+        }
+        if (value == null) {
+            throw new NullPointerException("Error: null value for key:" + key);
+        }
+        int pageIndex = key >>> PAGE_BITS;
+        if (pageIndex >= pages.length) {
+            int length = Math.max(pageIndex + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            pageSizes = Arrays.copyOf(pageSizes, length);
+        }
+        Object[] page = pages[pageIndex];
+        if (page == null) {
+            page = new Object[PAGE_SIZE];
+            pages[pageIndex] = page;
+        }
+        V previous = (V) page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = value;
+        if (previous == null) {
+            pageSizes[pageIndex]++;
+            size++;
+        }
+        return previous;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mapping) {
+        V value = get(key);
+        if (value == null) {
+            value = mapping.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    //returns removed value or null
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        Object[] page = page(key);
+        if (page == null || page[key & PAGE_MASK] == null) {
+            return null;
+        }
+        V previous = (V) page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = null;
+        size--;
+        int pageIndex = key >>> PAGE_BITS;
+        if (--pageSizes[pageIndex] == 0) {
+            pages[pageIndex] = null;
+        }
+        return previous;
+    }
+
+    public void clear() {
+        pages = new Object[1][];
+        pageSizes = new int[1];
+        size = 0;
+    }
+
+    //live view in ascending key order
+    public Collection<V> values() {
+        return valuesView;
+    }
+
+    //live read-only view of keys
+    public IntSet keySet() {
+        return keysView;
+    }
+
+    private Object[] page(int key) {
+        int pageIndex = key >>> PAGE_BITS;
+        return key < 0 || pageIndex >= pages.length ? null : pages[pageIndex];
+    }
+
+    private class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<>() {
+                private final Object[][] table = pages;
+                private int pageIndex;
+                private int slot = -1;
+
+                {
+                    advance();
+                }
+
+                //moves to next filled slot, skipping released pages
+                private void advance() {
+                    slot++;
+                    while (pageIndex < table.length) {
+                        Object[] page = table[pageIndex];
+                        if (page != null) {
+                            while (slot < PAGE_SIZE && page[slot] == null) {
+                                slot++;
+                            }
+                            if (slot < PAGE_SIZE) {
+                                return;
+                            }
+                        }
+                        pageIndex++;
+                        slot = 0;
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return pageIndex < table.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    V value = (V) table[pageIndex][slot];
+                    advance();
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private class Keys implements IntSet {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return containsKey(value);
+        }
+
+        //keys are copied first, so action may change the map
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int key : toArray()) {
+                action.accept(key);
+            }
+        }
+
+        //keys in ascending order
+        @Override
+        public int[] toArray() {
+            int[] result = new int[size];
+            int i = 0;
+            for (int pageIndex = 0; pageIndex < pages.length; pageIndex++) {
+                Object[] page = pages[pageIndex];
+                if (page != null) {
+                    for (int slot = 0; slot < PAGE_SIZE; slot++) {
+                        if (page[slot] != null) {
+                            result[i++] = (pageIndex << PAGE_BITS) | slot;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.yandex.app.utility;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+//read-only view of a set of ints
+public interface IntSet {
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    boolean contains(int value);
+
+    //iteration order is not specified
+    void forEach(IntConsumer action);
+
+    int[] toArray();
+
+    default IntStream stream() {
+        return IntStream.of(toArray());
+    }
+}
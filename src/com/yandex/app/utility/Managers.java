@@ -2,16 +2,37 @@ package com.yandex.app.utility;
 
 import com.yandex.app.service.*;
 
+import java.time.Duration;
+
 public class Managers {
+    private static final int HISTORY_FLUSH_COUNT = 100;
+    private static final Duration HISTORY_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
     public static TaskManager getDefault() {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
-    public static TaskManager getFileBackendTaskManager() {
-        return new FileBackedTaskManager(getDefaultHistory());
+    //views are persisted in batches instead of on every get by id, the last of them at least once a second
+    public static FileBackedTaskManager getFileBackendTaskManager() {
+        return new FileBackedTaskManager(getDefaultHistory(), new PersistenceSettings()
+                .setHistoryFlushCount(HISTORY_FLUSH_COUNT).setHistoryFlushInterval(HISTORY_FLUSH_INTERVAL));
+    }
+
+    public static TaskManager getConcurrentTaskManager(TaskManager taskManager) {
+        return new ConcurrentTaskManager(taskManager);
     }
 
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    //records views made in parallel without a lock, history keeps them in order
+    public static HistoryManager getConcurrentHistory(HistoryManager history) {
+        return new ConcurrentHistoryManager(history);
+    }
+
+    //keeps capacity most recently viewed tasks
+    public static HistoryManager getBoundedHistory(int capacity) {
+        return new BoundedHistoryManager(capacity);
+    }
 }
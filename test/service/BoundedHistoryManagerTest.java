@@ -0,0 +1,113 @@
+package service;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.BoundedHistoryManager;
+import com.yandex.app.service.HistoryManager;
+import com.yandex.app.utility.Managers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+class BoundedHistoryManagerTest {
+
+    @Test
+    void addMovesTaskToEnd() {
+        HistoryManager historyManager = Managers.getBoundedHistory(10);
+        for (int id = 1; id <= 3; id++) {
+            historyManager.add(task(id));
+        }
+        historyManager.add(task(1));
+        Assertions.assertEquals(List.of(2, 3, 1), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void leastRecentlyViewedTaskIsEvicted() {
+        HistoryManager historyManager = Managers.getBoundedHistory(3);
+        for (int id = 1; id <= 3; id++) {
+            historyManager.add(task(id));
+        }
+        historyManager.add(task(1));
+        historyManager.add(task(4));
+        Assertions.assertEquals(List.of(3, 1, 4), ids(historyManager.getHistory()));
+        historyManager.add(task(5));
+        Assertions.assertEquals(List.of(1, 4, 5), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void removedTaskFreesItsSlot() {
+        HistoryManager historyManager = Managers.getBoundedHistory(2);
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.remove(1);
+        historyManager.remove(7);
+        historyManager.add(task(3));
+        Assertions.assertEquals(List.of(2, 3), ids(historyManager.getHistory()));
+        historyManager.remove(2);
+        historyManager.remove(3);
+        Assertions.assertTrue(historyManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void capacityHasToBePositive() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BoundedHistoryManager(0));
+    }
+
+    //random views and removals compared with access ordered LinkedHashMap dropping its eldest entry
+    @Test
+    void matchesLruMap() {
+        int capacity = 64;
+        HistoryManager historyManager = Managers.getBoundedHistory(capacity);
+        LinkedHashMap<Integer, Task> expected = new LinkedHashMap<>(16, 0.75f, true);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            int id = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                historyManager.remove(id);
+                expected.remove(id);
+            } else {
+                Task task = task(id);
+                historyManager.add(task);
+                expected.remove(id);
+                expected.put(id, task);
+                if (expected.size() > capacity) {
+                    expected.remove(expected.keySet().iterator().next());
+                }
+            }
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.values()), historyManager.getHistory());
+    }
+
+    @Test
+    void historyPagesMatchFullHistory() {
+        HistoryManager historyManager = Managers.getBoundedHistory(8);
+        for (int id = 1; id <= 10; id++) {
+            historyManager.add(task(id));
+        }
+        historyManager.add(task(4));
+        List<Task> history = historyManager.getHistory();
+        Assertions.assertEquals(8, historyManager.size());
+        for (int offset = 0; offset <= 9; offset++) {
+            for (int limit = 0; limit <= 9; limit++) {
+                List<Task> expected = history.subList(Math.min(offset, 8), Math.min(offset + limit, 8));
+                Assertions.assertEquals(expected, historyManager.getHistory(offset, limit));
+            }
+        }
+        Assertions.assertEquals(history, historyManager.getHistory(0, Integer.MAX_VALUE));
+        List<Task> walked = new ArrayList<>();
+        historyManager.forEach(walked::add);
+        Assertions.assertEquals(history, walked);
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "task" + id, "description", Status.NEW);
+    }
+
+    private static List<Integer> ids(List<Task> history) {
+        return history.stream().map(Task::getId).toList();
+    }
+}
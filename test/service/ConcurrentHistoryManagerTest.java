@@ -0,0 +1,144 @@
+package service;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.ConcurrentHistoryManager;
+import com.yandex.app.service.ConcurrentTaskManager;
+import com.yandex.app.service.HistoryManager;
+import com.yandex.app.service.HistoryPage;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+import com.yandex.app.service.TaskManager;
+import com.yandex.app.utility.Managers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class ConcurrentHistoryManagerTest {
+    private static final int THREADS = 8;
+    private static final int VIEWS = 2_000;
+
+    @Test
+    void sameHistoryAsWrappedManagerInOneThread() {
+        HistoryManager historyManager = Managers.getConcurrentHistory(Managers.getDefaultHistory());
+        HistoryManager expected = new InMemoryHistoryManager();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            int id = random.nextInt(300);
+            if (random.nextInt(5) == 0) {
+                historyManager.remove(id);
+                expected.remove(id);
+            } else {
+                Task task = task(id);
+                historyManager.add(task);
+                expected.add(task);
+            }
+        }
+        Assertions.assertEquals(expected.getHistory(), historyManager.getHistory());
+        Assertions.assertEquals(expected.size(), historyManager.size());
+        Assertions.assertEquals(expected.getHistory(10, 20), historyManager.getHistory(10, 20));
+    }
+
+    //every thread views its own tasks, no view is lost and views of one thread keep their order
+    @Test
+    void parallelViewsAreKeptInOrderOfEachThread() throws Exception {
+        HistoryManager historyManager = new ConcurrentHistoryManager(new InMemoryHistoryManager());
+        runConcurrently(thread -> {
+            for (int i = 0; i < VIEWS; i++) {
+                historyManager.add(task(thread * VIEWS + i));
+            }
+        });
+        List<Task> history = historyManager.getHistory();
+        Assertions.assertEquals(THREADS * VIEWS, history.size());
+        int[] lastIds = new int[THREADS];
+        for (int thread = 0; thread < THREADS; thread++) {
+            lastIds[thread] = thread * VIEWS - 1;
+        }
+        for (Task task : history) {
+            int thread = task.getId() / VIEWS;
+            Assertions.assertEquals(lastIds[thread] + 1, task.getId());
+            lastIds[thread] = task.getId();
+        }
+    }
+
+    @Test
+    void parallelGetsThroughConcurrentTaskManager() throws Exception {
+        TaskManager taskManager = new ConcurrentTaskManager(
+                new InMemoryTaskManager(Managers.getConcurrentHistory(Managers.getDefaultHistory())));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(taskManager.addTask(new Task("task" + i, "description")).getId());
+        }
+        runConcurrently(thread -> {
+            for (int i = 0; i < VIEWS; i++) {
+                taskManager.getTaskById(ids.get((thread + i) % ids.size()));
+            }
+        });
+        Set<Integer> viewed = new HashSet<>();
+        taskManager.getHistory().forEach(task -> viewed.add(task.getId()));
+        Assertions.assertEquals(new HashSet<>(ids), viewed);
+        taskManager.deleteTaskById(ids.getFirst());
+        Assertions.assertEquals(ids.size() - 1, taskManager.getHistory().size());
+    }
+
+    //size is taken with the page, views made meanwhile do not make them disagree
+    @Test
+    void historyPageAgreesWithItsTotal() throws Exception {
+        TaskManager taskManager = new ConcurrentTaskManager(
+                new InMemoryTaskManager(Managers.getConcurrentHistory(Managers.getDefaultHistory())));
+        for (int i = 0; i < THREADS * VIEWS; i++) {
+            taskManager.addTask(new Task("task" + i, "description"));
+        }
+        runConcurrently(thread -> {
+            for (int i = 0; i < VIEWS; i++) {
+                if (thread == 0) {
+                    HistoryPage page = taskManager.getHistoryPage(0, Integer.MAX_VALUE);
+                    Assertions.assertEquals(page.total(), page.items().size());
+                } else {
+                    taskManager.getTaskById(thread * VIEWS + i + 1);
+                }
+            }
+        });
+        Assertions.assertEquals((THREADS - 1) * VIEWS, taskManager.getHistoryPage(0, 0).total());
+    }
+
+    private void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                body.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "task" + id, "description", Status.NEW);
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
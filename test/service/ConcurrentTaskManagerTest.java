@@ -0,0 +1,140 @@
+package service;
+
+import com.yandex.app.enums.Status;
+import com.yandex.app.exception.ValidationException;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+import com.yandex.app.service.ConcurrentTaskManager;
+import com.yandex.app.service.InMemoryHistoryManager;
+import com.yandex.app.service.InMemoryTaskManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 500;
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 3, 10, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager(new InMemoryTaskManager(new InMemoryHistoryManager()));
+    }
+
+    //threads compete for the same time slots, only one task per slot may win
+    @Test
+    void concurrentAddsKeepTasksFromIntercepting() throws Exception {
+        Epic epic = new Epic("epic", "epic description");
+        taskManager.addEpic(epic);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                ZonedDateTime startTime = START.plusMinutes(30L * (i % 100));
+                try {
+                    if (i % 2 == 0) {
+                        taskManager.addTask(new Task("task", "description", Status.NEW, Duration.ofMinutes(20), startTime));
+                    } else {
+                        taskManager.addSubtask(new Subtask("subtask", "description", epic.getId(), Status.NEW,
+                                Duration.ofMinutes(20), startTime.plusMinutes(10)));
+                    }
+                    added.incrementAndGet();
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                }
+                validatePrioritised(taskManager.getPrioritisedTasks());
+            }
+        });
+
+        List<Task> prioritisedTasks = taskManager.getPrioritisedTasks();
+        validatePrioritised(prioritisedTasks);
+        Assertions.assertEquals(100, prioritisedTasks.size());
+        Assertions.assertEquals(100, added.get());
+        Assertions.assertEquals(THREADS * OPERATIONS - 100, rejected.get());
+        Assertions.assertEquals(100, taskManager.getAllTasks().size() + taskManager.getAllSubtasks().size());
+    }
+
+    //epic status is recalculated under the same lock as the subtask change
+    @Test
+    void concurrentSubtaskUpdatesKeepEpicStatus() throws Exception {
+        Epic epic = new Epic("epic", "epic description");
+        taskManager.addEpic(epic);
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Subtask subtask = new Subtask("subtask" + i, "description", epic.getId());
+            taskManager.addSubtask(subtask);
+            subtasks.add(subtask);
+        }
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                Subtask update = new Subtask(subtasks.get(thread).getId(), "subtask" + thread, "description",
+                        epic.getId(), i == OPERATIONS - 1 ? Status.DONE : Status.values()[(i + thread) % 3]);
+                taskManager.updateSubtask(update);
+                Assertions.assertEquals(THREADS, taskManager.getEpicSubtasksById(epic.getId()).size());
+            }
+        });
+        List<Subtask> epicSubtasks = taskManager.getEpicSubtasksById(epic.getId());
+        Assertions.assertTrue(epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE));
+        Assertions.assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus());
+    }
+
+    @Test
+    void concurrentAddsGetUniqueIds() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                taskManager.addTask(new Task("task", "description"));
+                taskManager.getTaskById(taskManager.getAllTasks().getFirst().getId());
+            }
+        });
+        List<Task> tasks = taskManager.getAllTasks();
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        Assertions.assertEquals(THREADS * OPERATIONS, ids.size());
+        Assertions.assertEquals(1, taskManager.getHistory().size());
+    }
+
+    private void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                body.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void validatePrioritised(List<Task> prioritisedTasks) {
+        for (int i = 1; i < prioritisedTasks.size(); i++) {
+            Task prev = prioritisedTasks.get(i - 1);
+            Task next = prioritisedTasks.get(i);
+            Assertions.assertFalse(next.getStartTime().isBefore(prev.getEndTime()),
+                    "task " + next.getId() + " intercepts task " + prev.getId());
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
@@ -1,21 +1,35 @@
 package service;
 
+import com.yandex.app.enums.FsyncPolicy;
 import com.yandex.app.enums.Status;
+import com.yandex.app.enums.StorageFormat;
 import com.yandex.app.exception.ManagerSaveException;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
 import com.yandex.app.service.FileBackedTaskManager;
+import com.yandex.app.service.PersistenceMetrics;
+import com.yandex.app.service.PersistenceSettings;
+import com.yandex.app.utility.Managers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
 
@@ -104,6 +118,333 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         Assertions.assertNull(manager.getSubtaskById(6).getStartTime());
     }
 
+    //times are parsed by hand, so every form ZonedDateTime.toString writes has to come back equal
+    @Test
+    void loadKeepsStartTimeZones() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(taskManagerTestFile);
+        LocalDateTime local = LocalDateTime.of(2024, 3, 31, 1, 30);
+        List<ZonedDateTime> startTimes = List.of(
+                ZonedDateTime.of(local.minusDays(1), ZoneOffset.UTC),
+                ZonedDateTime.of(local.plusDays(1).withSecond(5), ZoneId.of("Europe/Moscow")),
+                ZonedDateTime.of(local.plusDays(2).withNano(120_000_000), ZoneOffset.ofHoursMinutes(-5, -30)),
+                ZonedDateTime.of(local.plusDays(3).withNano(123_456_000), ZoneId.of("UTC")),
+                ZonedDateTime.of(local.plusDays(4).withNano(7), ZoneId.of("America/New_York")),
+                //skipped hour of daylight saving change in Berlin
+                ZonedDateTime.of(local.withHour(2), ZoneId.of("Europe/Berlin")),
+                ZonedDateTime.of(LocalDateTime.of(12024, 1, 1, 0, 0), ZoneOffset.UTC));
+        startTimes.forEach(startTime -> manager.addTask(new Task("task", "task description", Status.NEW,
+                Duration.ofMinutes(1), startTime)));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        Assertions.assertEquals(startTimes, loaded.getAllTasks().stream().map(Task::getStartTime).toList());
+        Assertions.assertEquals(startTimes.size(), loaded.getLoadReport().rows());
+    }
+
+    @Test
+    void loadFromFileWithWindowsLineBreaks() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        String content = Files.readString(Paths.get("test/resources/testTaskData_load.csv"));
+        Files.writeString(taskManagerTestFile, content.replaceAll("\r?\n", "\r\n"));
+        FileBackedTaskManager expected = FileBackedTaskManager.loadFromFile(Paths.get("test/resources/testTaskData_load.csv"));
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        Assertions.assertEquals(expected.getAllTasks(), manager.getAllTasks());
+        Assertions.assertEquals(expected.getAllSubtasks(), manager.getAllSubtasks());
+        Assertions.assertEquals(expected.getHistory(), manager.getHistory());
+        Assertions.assertEquals(expected.getPrioritisedTasks(), manager.getPrioritisedTasks());
+    }
+
+    //file of a few megabytes is split in several chunks, result has to be the same as of sequential load
+    @Test
+    void parallelLoadMatchesSequentialLoad() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings journal = new PersistenceSettings().setJournal(true);
+        ZonedDateTime dateTime = ZonedDateTime.of(2024, 4, 1, 10, 0, 0, 0, ZoneId.of("Europe/Moscow"));
+        try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, journal)) {
+            Epic epic = null;
+            for (int i = 0; i < 30_000; i++) {
+                if (i % 100 == 0) {
+                    epic = new Epic("epic" + i, "epic description with some text");
+                    manager.addEpic(epic);
+                } else if (i % 3 == 0) {
+                    manager.addSubtask(new Subtask("subtask" + i, "subtask description with some text", epic.getId(),
+                            Status.values()[i % 9 / 3], Duration.ofMinutes(10), dateTime.plusMinutes(15L * i)));
+                } else {
+                    manager.addTask(new Task("task" + i, "task description with some text", Status.NEW,
+                            Duration.ofMinutes(10), i % 2 == 0 ? null : dateTime.plusMinutes(15L * i)));
+                }
+            }
+            manager.getTaskById(2);
+            manager.getEpicById(1);
+        }
+        FileBackedTaskManager.loadFromFile(taskManagerTestFile, journal).close();
+        Files.deleteIfExists(Paths.get(taskManagerTestFile + ".journal"));
+
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                new PersistenceSettings().setParallelLoad(true));
+        Assertions.assertEquals(30_000, parallel.getLoadReport().rows());
+        Assertions.assertEquals(sequential.getAllTasks(), parallel.getAllTasks());
+        Assertions.assertEquals(sequential.getAllSubtasks(), parallel.getAllSubtasks());
+        Assertions.assertEquals(sequential.getAllEpics().toString(), parallel.getAllEpics().toString());
+        Assertions.assertEquals(sequential.getPrioritisedTasks(), parallel.getPrioritisedTasks());
+        Assertions.assertEquals(List.of(2, 1), parallel.getHistory().stream().map(Task::getId).toList());
+        Epic epic = (Epic) parallel.getEpicById(1);
+        Assertions.assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        Assertions.assertEquals(dateTime.plusMinutes(15L * 3), epic.getStartTime());
+    }
+
+    //hand-edited file may end with line breaks after history line
+    @Test
+    void parallelLoadSkipsTrailingLineBreaks() throws IOException {
+        String data = Files.readString(Paths.get("test/resources/testTaskData_load.csv"));
+        for (String end : List.of("\n", "\r\n", "\n\n")) {
+            Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+            Files.writeString(taskManagerTestFile, data + end);
+            FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+            FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                    new PersistenceSettings().setParallelLoad(true));
+            Assertions.assertEquals(sequential.getAllTasks(), parallel.getAllTasks());
+            Assertions.assertEquals(sequential.getAllSubtasks(), parallel.getAllSubtasks());
+            Assertions.assertEquals(sequential.getAllEpics().toString(), parallel.getAllEpics().toString());
+            Assertions.assertFalse(parallel.getHistory().isEmpty());
+            Assertions.assertEquals(sequential.getHistory(), parallel.getHistory());
+            Files.deleteIfExists(taskManagerTestFile);
+        }
+    }
+
+    @Test
+    void binarySnapshotKeepsTasks() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".bin");
+        PersistenceSettings binary = new PersistenceSettings().setFormat(StorageFormat.BINARY);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, binary);
+        ZonedDateTime dateTime = ZonedDateTime.of(2024, 4, 1, 10, 20, 10, 10, ZoneId.of("Europe/Moscow"));
+        Task task = new Task("task, with comma", "line\nbreak, comma", Status.IN_PROGRESS, Duration.ofMinutes(31),
+                dateTime.withZoneSameInstant(ZoneOffset.ofHours(-7)));
+        Epic epic = new Epic("эпик", "описание");
+        manager.addTask(task);
+        manager.addEpic(epic);
+        manager.addSubtask(new Subtask("subtask", null, epic.getId(), Status.DONE, Duration.ofMinutes(11), dateTime.plusDays(1)));
+        manager.addTask(new Task("no time", "task description"));
+        manager.getEpicById(epic.getId());
+        manager.getTaskById(task.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        Assertions.assertEquals(manager.getAllTasks().toString(), loaded.getAllTasks().toString());
+        Assertions.assertEquals(manager.getAllEpics().toString(), loaded.getAllEpics().toString());
+        Assertions.assertEquals(manager.getAllSubtasks().toString(), loaded.getAllSubtasks().toString());
+        Assertions.assertEquals(manager.getHistory(), loaded.getHistory());
+        Assertions.assertEquals(task.getStartTime(), loaded.getTaskById(task.getId()).getStartTime());
+        Assertions.assertNull(loaded.getAllSubtasks().getFirst().getDescription());
+    }
+
+    @Test
+    void convertCsvToBinaryAndBack() throws IOException {
+        Path source = Paths.get("test/resources/testTaskData_load.csv");
+        Path binary = Files.createTempFile("taskManagerTest", ".bin");
+        Path csv = Files.createTempFile("taskManagerTest", ".csv");
+        FileBackedTaskManager.convert(source, binary, StorageFormat.BINARY);
+        FileBackedTaskManager.convert(binary, csv, StorageFormat.CSV);
+
+        Assertions.assertTrue(Files.size(binary) < Files.size(source));
+        FileBackedTaskManager expected = FileBackedTaskManager.loadFromFile(source);
+        FileBackedTaskManager converted = FileBackedTaskManager.loadFromFile(csv);
+        Assertions.assertEquals(expected.getAllTasks().toString(), converted.getAllTasks().toString());
+        Assertions.assertEquals(expected.getAllEpics().toString(), converted.getAllEpics().toString());
+        Assertions.assertEquals(expected.getAllSubtasks().toString(), converted.getAllSubtasks().toString());
+        Assertions.assertEquals(expected.getHistory(), converted.getHistory());
+    }
+
+    //tasks are decoded on first access, manager has to look the same as loaded in full
+    @Test
+    void lazyLoadMatchesFullLoad() throws IOException {
+        Path taskManagerTestFile = writeBinarySnapshot();
+        FileBackedTaskManager full = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                new PersistenceSettings().setLazyLoad(true));
+
+        Assertions.assertEquals(full.getPrioritisedTasks().toString(), lazy.getPrioritisedTasks().toString());
+        Assertions.assertEquals(full.getHistory(), lazy.getHistory());
+        Assertions.assertEquals(full.getAllTasks().toString(), lazy.getAllTasks().toString());
+        Assertions.assertEquals(full.getAllEpics().toString(), lazy.getAllEpics().toString());
+        Assertions.assertEquals(full.getAllSubtasks().toString(), lazy.getAllSubtasks().toString());
+        //decoded task is kept, so every lookup gives the same object
+        Task prioritised = lazy.getPrioritisedTasks().getFirst();
+        Assertions.assertSame(prioritised, lazy.getTaskById(prioritised.getId()));
+    }
+
+    @Test
+    void lazyLoadedManagerSavesChanges() throws IOException {
+        Path taskManagerTestFile = writeBinarySnapshot();
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                new PersistenceSettings().setLazyLoad(true).setFormat(StorageFormat.BINARY));
+        Task task = new Task(2, "updated task", "description", Status.DONE);
+        lazy.updateTask(task);
+        lazy.deleteSubtaskById(lazy.getAllSubtasks().getLast().getId());
+        lazy.addTask(new Task("new task", "description"));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        Assertions.assertEquals(lazy.getAllTasks().toString(), loaded.getAllTasks().toString());
+        Assertions.assertEquals(lazy.getAllEpics().toString(), loaded.getAllEpics().toString());
+        Assertions.assertEquals(lazy.getAllSubtasks().toString(), loaded.getAllSubtasks().toString());
+        Assertions.assertEquals(lazy.getPrioritisedTasks().toString(), loaded.getPrioritisedTasks().toString());
+    }
+
+    //journal records replace and delete rows of mapped snapshot before tasks are indexed
+    @Test
+    void lazyLoadReplaysJournal() throws IOException {
+        Path taskManagerTestFile = writeBinarySnapshot();
+        PersistenceSettings journal = new PersistenceSettings().setJournal(true).setFormat(StorageFormat.BINARY);
+        try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, journal)) {
+            manager.updateSubtask(new Subtask(manager.getAllSubtasks().getFirst().getId(), "updated subtask",
+                    "description", 0, Status.DONE));
+            manager.deleteTaskById(manager.getAllTasks().getLast().getId());
+        }
+        FileBackedTaskManager full = FileBackedTaskManager.loadFromFile(taskManagerTestFile, journal);
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                new PersistenceSettings().setJournal(true).setLazyLoad(true));
+        Assertions.assertEquals(full.getAllTasks().toString(), lazy.getAllTasks().toString());
+        Assertions.assertEquals(full.getAllEpics().toString(), lazy.getAllEpics().toString());
+        Assertions.assertEquals(full.getAllSubtasks().toString(), lazy.getAllSubtasks().toString());
+        Assertions.assertEquals(full.getPrioritisedTasks().toString(), lazy.getPrioritisedTasks().toString());
+    }
+
+    private Path writeBinarySnapshot() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".bin");
+        ZonedDateTime dateTime = ZonedDateTime.of(2024, 4, 1, 10, 0, 0, 0, ZoneId.of("Europe/Moscow"));
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                new PersistenceSettings().setFormat(StorageFormat.BINARY));
+        Epic epic = null;
+        for (int i = 0; i < 300; i++) {
+            if (i % 30 == 0) {
+                epic = new Epic("epic" + i, "epic description");
+                manager.addEpic(epic);
+            } else if (i % 3 == 0) {
+                manager.addSubtask(new Subtask("subtask" + i, "subtask description", epic.getId(),
+                        Status.values()[i % 9 / 3], Duration.ofMinutes(10), i % 2 == 0 ? null : dateTime.plusMinutes(15L * i)));
+            } else {
+                manager.addTask(new Task("task, " + i, null, Status.NEW, Duration.ofMinutes(10),
+                        i % 2 == 0 ? null : dateTime.withZoneSameInstant(ZoneOffset.UTC).plusMinutes(15L * i)));
+            }
+        }
+        manager.getTaskById(2);
+        manager.getSubtaskById(4);
+        manager.getEpicById(1);
+        return taskManagerTestFile;
+    }
+
+    //file is replaced, not rewritten in place, so a reader never loads it half-written
+    @Test
+    void readersNeverSeeHalfWrittenSnapshot() throws Exception {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(taskManagerTestFile);
+        for (int i = 0; i < 500; i++) {
+            manager.addTask(new Task("task" + i, "description of task " + i));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                manager.updateTask(new Task(1 + i % 500, "updated task" + i, "description", Status.IN_PROGRESS));
+            }
+            writing.set(false);
+        });
+        writer.start();
+        int loads = 0;
+        while (writing.get() || loads == 0) {
+            Assertions.assertEquals(500, FileBackedTaskManager.loadFromFile(taskManagerTestFile).getAllTasks().size());
+            loads++;
+        }
+        writer.join();
+        Assertions.assertFalse(Files.exists(Paths.get(taskManagerTestFile + ".tmp")));
+    }
+
+    @Test
+    void everyFsyncPolicyKeepsChanges() throws IOException {
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            for (boolean journal : new boolean[]{false, true}) {
+                Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+                PersistenceSettings settings = new PersistenceSettings().setFsyncPolicy(policy).setJournal(journal)
+                        .setFsyncInterval(Duration.ofMillis(10));
+                try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings)) {
+                    Epic epic = new Epic("epic", "epic description");
+                    manager.addEpic(epic);
+                    manager.addSubtask(new Subtask("subtask", "subtask description", epic.getId(), Status.DONE));
+                    manager.addTask(new Task("task", "task description"));
+                    manager.sync();
+                    manager.deleteTaskById(3);
+                }
+                FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+                Assertions.assertEquals(0, loaded.getAllTasks().size(), policy + " journal:" + journal);
+                Assertions.assertEquals(Status.DONE, loaded.getAllEpics().getFirst().getStatus(), policy + " journal:" + journal);
+                loaded.close();
+            }
+        }
+    }
+
+    //writer thread can't keep up with changes, so several changes go in one write
+    @Test
+    void asyncWritesCoalesceChanges() throws Exception {
+        for (boolean journal : new boolean[]{false, true}) {
+            Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+            PersistenceSettings settings = new PersistenceSettings().setAsyncWrites(true).setJournal(journal);
+            try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings)) {
+                for (int i = 0; i < 1_000; i++) {
+                    manager.addTask(new Task("task" + i, "description of task " + i));
+                }
+                manager.getTaskById(5);
+                manager.persisted().get(30, TimeUnit.SECONDS);
+
+                PersistenceMetrics metrics = manager.getPersistenceMetrics();
+                Assertions.assertEquals(0, metrics.queueDepth());
+                Assertions.assertEquals(1_001, metrics.changesWritten());
+                Assertions.assertTrue(metrics.flushes() < 1_001, metrics.toString());
+                FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile,
+                        new PersistenceSettings().setJournal(journal));
+                Assertions.assertEquals(manager.getAllTasks(), loaded.getAllTasks());
+                Assertions.assertEquals(List.of(5), loaded.getHistory().stream().map(Task::getId).toList());
+            }
+        }
+    }
+
+    @Test
+    void closeWritesQueuedChanges() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setAsyncWrites(true);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Epic epic = new Epic("epic", "epic description");
+        manager.addEpic(epic);
+        for (int i = 0; i < 100; i++) {
+            manager.addSubtask(new Subtask("subtask" + i, "description", epic.getId(), Status.DONE));
+        }
+        manager.close();
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile);
+        Assertions.assertEquals(100, loaded.getAllSubtasks().size());
+        Assertions.assertEquals(Status.DONE, loaded.getAllEpics().getFirst().getStatus());
+    }
+
+    //failed write is reported by future, next change and close, as sync write would report it to its caller
+    @Test
+    void asyncWriteErrorReachesCaller() throws IOException {
+        Path taskManagerTestFile = Files.createTempDirectory("taskManagerTest").resolve("missing/tasks.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), taskManagerTestFile,
+                new PersistenceSettings().setAsyncWrites(true));
+        manager.addTask(new Task("task", "description"));
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> manager.persisted().get(30, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof ManagerSaveException);
+        Assertions.assertThrows(ManagerSaveException.class, () -> manager.addTask(new Task("task", "description")));
+        Assertions.assertThrows(ManagerSaveException.class, manager::close);
+    }
+
+    @Test
+    void binarySnapshotOfUnknownVersionIsRejected() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".bin");
+        Files.write(taskManagerTestFile, new byte[]{'T', 'K', 'B', 'N', 9, 0, 0, 0});
+        Assertions.assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(taskManagerTestFile));
+        Files.write(taskManagerTestFile, new byte[]{'T', 'K', 'B', 'N', 1, 0, 2, 10});
+        Assertions.assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(taskManagerTestFile));
+    }
+
     @Test
     void deleteTasksRemovedFromFile() throws IOException {
         Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
@@ -188,4 +529,191 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         manager.addTask(new Task("task1", "task description"));
         Assertions.assertEquals(1, manager.getAllTasks().size());
     }
+
+    @Test
+    void journalAppendsChangesAndReloads() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("task1", "task description");
+        Task task2 = new Task("task2", "task description");
+        Epic epic = new Epic("epic1", "task description");
+        manager.addTask(task);
+        manager.addTask(task2);
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("subtask1", "task description 1", epic.getId(), Status.DONE,
+                Duration.ofMinutes(15), ZonedDateTime.of(2024, 4, 3, 8, 0, 0, 0, ZoneOffset.UTC));
+        manager.addSubtask(subtask);
+        manager.getSubtaskById(subtask.getId());
+        manager.getTaskById(task.getId());
+        manager.getTaskById(task2.getId());
+        manager.deleteTaskById(task2.getId());
+        manager.close();
+
+        String expectedTaskData = Files.readString(Paths.get("test/resources/testTaskData_delete.csv"));
+        Assertions.assertEquals(expectedTaskData, Files.readString(taskManagerTestFile));
+        Path journal = taskManagerTestFile.resolveSibling(taskManagerTestFile.getFileName() + ".journal");
+        Assertions.assertEquals(9, Files.readAllLines(journal).size());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Assertions.assertEquals(List.of(task), loaded.getAllTasks());
+        Assertions.assertEquals(List.of(epic), loaded.getAllEpics());
+        Assertions.assertEquals(List.of(subtask), loaded.getAllSubtasks());
+        Assertions.assertEquals(List.of(subtask), loaded.getPrioritisedTasks());
+        Assertions.assertEquals(List.of(subtask, task), loaded.getHistory());
+        Assertions.assertEquals(Status.DONE, loaded.getEpicById(epic.getId()).getStatus());
+        loaded.addTask(task2);
+        Assertions.assertEquals(5, task2.getId());
+        loaded.close();
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    @Test
+    void journalCompactsIntoSnapshot() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true).setJournalCompactionThreshold(3);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("task1", "task description");
+        Epic epic = new Epic("epic1", "task description");
+        manager.addTask(task);
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("subtask1", "task description 1", epic.getId());
+        manager.addSubtask(subtask);
+        manager.getTaskById(task.getId());
+        manager.close();
+
+        Path journal = taskManagerTestFile.resolveSibling(taskManagerTestFile.getFileName() + ".journal");
+        Assertions.assertEquals(1, Files.readAllLines(journal).size());
+        Assertions.assertEquals(5, Files.readAllLines(taskManagerTestFile).size());
+        Assertions.assertFalse(Files.exists(journal.resolveSibling(journal.getFileName() + ".compacting")));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Assertions.assertEquals(List.of(task), loaded.getAllTasks());
+        Assertions.assertEquals(List.of(subtask), loaded.getEpicSubtasksById(epic.getId()));
+        Assertions.assertEquals(List.of(task), loaded.getHistory());
+        loaded.close();
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    //commas and line breaks of text would break csv record, binary journal keeps them
+    @Test
+    void binaryJournalKeepsAnyText() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".bin");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true).setFormat(StorageFormat.BINARY);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        byte[] emptySnapshot = Files.readAllBytes(taskManagerTestFile);
+        Task task = new Task(0, "name, with comma", "description\nwith, line break", Status.IN_PROGRESS,
+                Duration.ofMinutes(15), ZonedDateTime.of(2024, 4, 3, 8, 0, 0, 0, ZoneOffset.UTC));
+        manager.addTask(task);
+        manager.close();
+        //only journal holds the task
+        Files.write(taskManagerTestFile, emptySnapshot);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task loadedTask = loaded.getTaskById(task.getId());
+        Assertions.assertEquals("name, with comma", loadedTask.getName());
+        Assertions.assertEquals("description\nwith, line break", loadedTask.getDescription());
+        Assertions.assertEquals(task.getStartTime(), loadedTask.getStartTime());
+        Assertions.assertEquals(Status.IN_PROGRESS, loadedTask.getStatus());
+        loaded.close();
+        Files.deleteIfExists(taskManagerTestFile.resolveSibling(taskManagerTestFile.getFileName() + ".journal"));
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    @Test
+    void journalTornRecordIsSkipped() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("task1", "task description");
+        manager.addTask(task);
+        manager.close();
+        Path journal = taskManagerTestFile.resolveSibling(taskManagerTestFile.getFileName() + ".journal");
+        Files.writeString(journal, "PUT,2,TASK,tas", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Assertions.assertEquals(List.of(task), loaded.getAllTasks());
+        loaded.close();
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    //crash may cut the last record in the middle of a multi-byte character
+    @Test
+    void journalTornMultiByteRecordIsSkipped() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("задача", "описание задачи");
+        manager.addTask(task);
+        manager.close();
+        Path journal = taskManagerTestFile.resolveSibling(taskManagerTestFile.getFileName() + ".journal");
+        byte[] record = "PUT,2,TASK,задача".getBytes(StandardCharsets.UTF_8);
+        Files.write(journal, Arrays.copyOf(record, record.length - 1), StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Assertions.assertEquals(List.of(task), loaded.getAllTasks());
+        Assertions.assertEquals("задача", loaded.getAllTasks().getFirst().getName());
+        loaded.close();
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    @Test
+    void historyFlushedByCount() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setHistoryFlushCount(3);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("task1", "task description");
+        manager.addTask(task);
+        manager.getTaskById(task.getId());
+        manager.getTaskById(task.getId());
+        Assertions.assertEquals("", Files.readAllLines(taskManagerTestFile).getLast());
+        manager.getTaskById(task.getId());
+        Assertions.assertEquals("1,", Files.readAllLines(taskManagerTestFile).getLast());
+        manager.close();
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    @Test
+    void historyFlushedByTimer() throws IOException, InterruptedException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setHistoryFlushCount(Integer.MAX_VALUE)
+                .setHistoryFlushInterval(Duration.ofMillis(20));
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("task1", "task description");
+        manager.addTask(task);
+        manager.getTaskById(task.getId());
+        for (int i = 0; i < 100 && !Files.readAllLines(taskManagerTestFile).getLast().equals("1,"); i++) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals("1,", Files.readAllLines(taskManagerTestFile).getLast());
+        manager.close();
+        Files.deleteIfExists(taskManagerTestFile);
+    }
+
+    @Test
+    void historyFlushedOnClose() throws IOException {
+        Path taskManagerTestFile = Files.createTempFile("taskManagerTest", ".csv");
+        PersistenceSettings settings = new PersistenceSettings().setJournal(true).setHistoryFlushCount(Integer.MAX_VALUE);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Task task = new Task("task1", "task description");
+        Task task2 = new Task("task2", "task description");
+        manager.addTask(task);
+        manager.addTask(task2);
+        manager.getTaskById(task2.getId());
+        manager.getTaskById(task.getId());
+        Path journal = taskManagerTestFile.resolveSibling(taskManagerTestFile.getFileName() + ".journal");
+        Assertions.assertEquals(2, Files.readAllLines(journal).size());
+        manager.close();
+        Assertions.assertEquals(4, Files.readAllLines(journal).size());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(taskManagerTestFile, settings);
+        Assertions.assertEquals(List.of(task2, task), loaded.getHistory());
+        loaded.close();
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(taskManagerTestFile);
+    }
 }
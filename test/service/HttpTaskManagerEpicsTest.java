@@ -114,8 +114,28 @@ class HttpTaskManagerEpicsTest {
         Assertions.assertEquals(task.getName(), tasksFromManager.getFirst().getName());
     }
 
+    //subtask ids sent with new epic point to no subtasks, epic is created without them and can be deleted
     @Test
-    void testPostUpdateEpic() throws IOException, InterruptedException {
+    void testPostEpicWithSubtaskIds() throws IOException, InterruptedException {
+        String taskJson = "{\"name\":\"task\",\"description\":\"test task\",\"subtaskIds\":[5,6]}";
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(EPICS_BASE_URI);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(201, response.statusCode());
+
+        Epic epic = manager.getAllEpics().getFirst();
+        Assertions.assertEquals(0, epic.getSubtaskIds().size());
+
+        request = HttpRequest.newBuilder().uri(URI.create(EPICS_BASE_URI + "/" + epic.getId())).DELETE().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertTrue(manager.getAllEpics().isEmpty());
+    }
+
+    @Test
+    void testPostUpdateEpic()throws IOException, InterruptedException {
         Epic task = new Epic("task", "test task");
         manager.addEpic(task);
 
@@ -77,4 +77,34 @@ class HttpTaskManagerHistoryTest {
         Assertions.assertEquals(5, jsonElements.size());
         Assertions.assertEquals(epic1, gson.fromJson(jsonElements.get(1), Epic.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetHistoryPage() throws IOException, InterruptedException {
+        for (int i = 1; i <= 5; i++) {
+            Task task = new Task("task" + i, "task description" + i);
+            manager.addTask(task);
+            manager.getTaskById(task.getId());
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(HISTORY_BASE_URI + "?offset=1&limit=2");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("5", response.headers().firstValue("X-Total-Count").orElse(null));
+        JsonArray jsonElements = JsonParser.parseString(response.body()).getAsJsonArray();
+        Assertions.assertEquals(2, jsonElements.size());
+        Assertions.assertEquals(manager.getHistory().get(1), gson.fromJson(jsonElements.get(0), Task.class));
+        Assertions.assertEquals(manager.getHistory().get(2), gson.fromJson(jsonElements.get(1), Task.class));
+
+        url = URI.create(HISTORY_BASE_URI + "?offset=4");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(1, JsonParser.parseString(response.body()).getAsJsonArray().size());
+
+        url = URI.create(HISTORY_BASE_URI + "?limit=-1");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(400, response.statusCode());
+    }
+}
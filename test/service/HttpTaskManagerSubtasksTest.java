@@ -24,7 +24,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 class HttpTaskManagerSubtasksTest {
@@ -191,4 +193,61 @@ class HttpTaskManagerSubtasksTest {
         Assertions.assertEquals(200, response.statusCode());
         Assertions.assertEquals(0, manager.getAllSubtasks().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetSubtasksFilteredInPages() throws IOException, InterruptedException {
+        Epic otherEpic = new Epic("other epic", "description");
+        manager.addEpic(otherEpic);
+        ZonedDateTime start = ZonedDateTime.of(2024, 3, 10, 9, 0, 0, 0, ZoneId.of("Europe/Moscow"));
+        List<Integer> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Subtask subtask = new Subtask("subtask" + i, "test subtask", i % 2 == 0 ? epic.getId() : otherEpic.getId(),
+                    i % 3 == 0 ? Status.DONE : Status.NEW, Duration.ofMinutes(5), start.plusHours(10 - i));
+            manager.addSubtask(subtask);
+            if (i % 2 == 0 && i % 3 != 0) {
+                expectedIds.add(subtask.getId());
+            }
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            URI url = URI.create(SUBTASKS_BASE_URI + "?epicId=" + epic.getId() + "&status=NEW&limit=2"
+                    + (cursor == null ? "" : "&cursor=" + cursor));
+            HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            JsonArray jsonElements = JsonParser.parseString(response.body()).getAsJsonArray();
+            Assertions.assertTrue(jsonElements.size() <= 2);
+            jsonElements.forEach(element -> ids.add(gson.fromJson(element, Subtask.class).getId()));
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (cursor != null);
+        Assertions.assertEquals(expectedIds, ids);
+
+        //latest start first one by start time, '+' of the offset is encoded
+        URI url = URI.create(SUBTASKS_BASE_URI + "?from=" + start.plusHours(5).toOffsetDateTime()
+                .toString().replace("+", "%2B") + "&limit=1");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        JsonArray jsonElements = JsonParser.parseString(response.body()).getAsJsonArray();
+        Assertions.assertEquals(1, jsonElements.size());
+        Assertions.assertEquals("subtask5", gson.fromJson(jsonElements.get(0), Subtask.class).getName());
+        Assertions.assertTrue(response.headers().firstValue("X-Next-Cursor").isPresent());
+    }
+
+    @Test
+    void testGetSubtasksBadQuery() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        for (String query : List.of("status=OPEN", "limit=0", "limit=ten", "epicId=x", "from=yesterday", "cursor=-1")) {
+            URI url = URI.create(SUBTASKS_BASE_URI + "?" + query);
+            HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(400, response.statusCode(), query);
+        }
+        URI url = URI.create(SUBTASKS_BASE_URI + "?epicId=99");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(404, response.statusCode());
+    }
+}
@@ -5,6 +5,7 @@ import com.yandex.app.enums.Status;
 import com.yandex.app.http.HttpTaskServer;
 import com.yandex.app.http.adapter.DurationTypeAdapter;
 import com.yandex.app.http.adapter.LocalTimeTypeAdapter;
+import com.yandex.app.model.Epic;
 import com.yandex.app.model.Task;
 import com.yandex.app.service.InMemoryHistoryManager;
 import com.yandex.app.service.InMemoryTaskManager;
@@ -14,14 +15,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 class HttpTaskManagerTasksTest {
 
@@ -70,6 +76,17 @@ class HttpTaskManagerTasksTest {
         Assertions.assertEquals(404, response.statusCode());
     }
 
+    @Test
+    void testGetTaskByNotIntegerId() throws IOException, InterruptedException {
+        manager.addTask(new Task("task", "test task"));
+        HttpClient client = HttpClient.newHttpClient();
+        for (String path : new String[]{"/1.5", "/abc", "/1/subtasks"}) {
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(TASKS_BASE_URI + path)).GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(404, response.statusCode(), path);
+        }
+    }
+
     @Test
     void testGetAllTasks() throws IOException, InterruptedException {
         Task task1 = new Task("task1", "test task",
@@ -91,6 +108,23 @@ class HttpTaskManagerTasksTest {
         Assertions.assertEquals(task2, taskFromServer2);
     }
 
+    //large list is streamed with chunked transfer instead of a fixed length body
+    @Test
+    void testGetAllTasksStreamed() throws IOException, InterruptedException {
+        for (int i = 0; i < 5_000; i++) {
+            manager.addTask(new Task("task" + i, "test task"));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(TASKS_BASE_URI);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertTrue(response.headers().firstValue("Content-Length").isEmpty());
+        JsonArray jsonElements = JsonParser.parseString(response.body()).getAsJsonArray();
+        Assertions.assertEquals(5_000, jsonElements.size());
+        Assertions.assertEquals(manager.getAllTasks().getLast(), gson.fromJson(jsonElements.get(4_999), Task.class));
+    }
+
     @Test
     void testPostTask() throws IOException, InterruptedException {
         Task task = new Task("task", "test task",
@@ -154,7 +188,29 @@ class HttpTaskManagerTasksTest {
     }
 
     @Test
-    void testPostUpdateTaskIntercept() throws IOException, InterruptedException {
+    void testPostTaskWithUnknownStatus() throws IOException, InterruptedException {
+        String taskJson = "{\"name\":\"task\",\"description\":\"test task\",\"status\":\"FOO\"}";
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(TASKS_BASE_URI);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(400, response.statusCode());
+        Assertions.assertTrue(response.body().contains("status"));
+        Assertions.assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void testPostTaskMalformed() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(TASKS_BASE_URI);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString("{\"name\":")).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void testPostUpdateTaskIntercept()throws IOException, InterruptedException {
         Task task1 = new Task("task", "test task",
                 Status.NEW, Duration.ofMinutes(5), ZonedDateTime.now());
         Task task2 = new Task("task", "test task",
@@ -186,4 +242,107 @@ class HttpTaskManagerTasksTest {
         Assertions.assertEquals(200, response.statusCode());
         Assertions.assertEquals(0, manager.getAllTasks().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetTasksNotModified() throws IOException, InterruptedException {
+        Task task = new Task("task", "test task", Status.NEW);
+        manager.addTask(task);
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(TASKS_BASE_URI);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(url).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+
+        response = client.send(HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(304, response.statusCode());
+        Assertions.assertEquals("", response.body());
+        Assertions.assertEquals(etag, response.headers().firstValue("ETag").orElseThrow());
+
+        //other collections do not change tasks tag
+        manager.addEpic(new Epic("epic", "description"));
+        response = client.send(HttpRequest.newBuilder().uri(url).header("If-None-Match", "\"other\", " + etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(304, response.statusCode());
+
+        manager.addTask(new Task("task2", "test task", Status.NEW));
+        response = client.send(HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(2, JsonParser.parseString(response.body()).getAsJsonArray().size());
+        Assertions.assertFalse(etag.equals(response.headers().firstValue("ETag").orElseThrow()));
+    }
+
+    @Test
+    void testGetTaskNotModifiedIsStillViewed() throws IOException, InterruptedException {
+        Task task = new Task("task", "test task", Status.NEW);
+        manager.addTask(task);
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(TASKS_BASE_URI + "/" + task.getId());
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(url).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+        manager.deleteAllTasks();
+        manager.addTask(task);
+        Assertions.assertEquals(0, manager.getHistory().size());
+
+        url = URI.create(TASKS_BASE_URI + "/" + task.getId());
+        response = client.send(HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        etag = response.headers().firstValue("ETag").orElseThrow();
+        response = client.send(HttpRequest.newBuilder().uri(url).header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(304, response.statusCode());
+        Assertions.assertEquals(List.of(task), manager.getHistory());
+    }
+
+    @Test
+    void testGetAllTasksCompressed() throws IOException, InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            manager.addTask(new Task("task" + i, "test task", Status.NEW));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(TASKS_BASE_URI);
+        HttpResponse<byte[]> plain = client.send(HttpRequest.newBuilder().uri(url).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+
+        HttpResponse<byte[]> gzip = client.send(HttpRequest.newBuilder().uri(url).header("Accept-Encoding", "gzip, deflate")
+                .GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElseThrow());
+        Assertions.assertTrue(gzip.body().length < plain.body().length / 4);
+        Assertions.assertTrue(Arrays.equals(plain.body(),
+                new GZIPInputStream(new ByteArrayInputStream(gzip.body())).readAllBytes()));
+
+        HttpResponse<byte[]> deflate = client.send(HttpRequest.newBuilder().uri(url)
+                .header("Accept-Encoding", "gzip;q=0.5, deflate").GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals("deflate", deflate.headers().firstValue("Content-Encoding").orElseThrow());
+        Assertions.assertTrue(Arrays.equals(plain.body(),
+                new InflaterInputStream(new ByteArrayInputStream(deflate.body())).readAllBytes()));
+
+        HttpResponse<byte[]> refused = client.send(HttpRequest.newBuilder().uri(url)
+                .header("Accept-Encoding", "gzip;q=0, identity").GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertTrue(refused.headers().firstValue("Content-Encoding").isEmpty());
+        Assertions.assertTrue(Arrays.equals(plain.body(), refused.body()));
+    }
+
+    //body below compression threshold is sent as is with its length
+    @Test
+    void testGetTaskNotCompressedWhenSmall() throws IOException, InterruptedException {
+        Task task = new Task("task", "test task", Status.NEW);
+        manager.addTask(task);
+        HttpClient client = HttpClient.newHttpClient();
+        for (String path : List.of("", "/" + task.getId())) {
+            URI url = URI.create(TASKS_BASE_URI + path);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(url)
+                    .header("Accept-Encoding", "gzip").GET().build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+            Assertions.assertEquals(String.valueOf(response.body().getBytes(StandardCharsets.UTF_8).length),
+                    response.headers().firstValue("Content-Length").orElseThrow());
+            Assertions.assertEquals("Accept-Encoding", response.headers().firstValue("Vary").orElseThrow());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package service;
 
+import com.yandex.app.enums.Status;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
@@ -175,4 +176,22 @@ class InMemoryHistoryManagerTest {
         List<Task> history = taskManager.getHistory();
         Assertions.assertEquals(0, history.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void historyPagesMatchFullHistory() {
+        for (int id = 1; id <= 7; id++) {
+            historyManager.add(new Task(id, "task" + id, "description", Status.NEW));
+        }
+        historyManager.add(new Task(2, "task2", "description", Status.NEW));
+        historyManager.remove(5);
+        List<Task> history = historyManager.getHistory();
+        Assertions.assertEquals(6, historyManager.size());
+        for (int offset = 0; offset <= 7; offset++) {
+            for (int limit = 0; limit <= 7; limit++) {
+                List<Task> expected = history.subList(Math.min(offset, 6), Math.min(offset + limit, 6));
+                Assertions.assertEquals(expected, historyManager.getHistory(offset, limit));
+            }
+        }
+        Assertions.assertEquals(history, historyManager.getHistory(0, Integer.MAX_VALUE));
+    }
+}
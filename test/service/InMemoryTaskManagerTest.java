@@ -46,6 +46,50 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         Assertions.assertEquals(DONE, taskManager.getEpicById(epic1.getId()).getStatus());
     }
 
+    @Test
+    void updateEpicStatusOnSubtaskDelete() {
+        Epic epic1 = new Epic("epic1", "epic description1");
+        taskManager.addEpic(epic1);
+        Subtask subtask1 = new Subtask("subtask1", "subtask description1", epic1.getId(), Status.DONE);
+        Subtask subtask2 = new Subtask("subtask2", "subtask description2", epic1.getId(), Status.IN_PROGRESS);
+        Subtask subtask3 = new Subtask("subtask3", "subtask description3", epic1.getId(), Status.NEW);
+        taskManager.addSubtask(subtask1);
+        taskManager.addSubtask(subtask2);
+        taskManager.addSubtask(subtask3);
+        Assertions.assertEquals(IN_PROGRESS, epic1.getStatus());
+
+        taskManager.deleteSubtaskById(subtask2.getId());
+        Assertions.assertEquals(IN_PROGRESS, epic1.getStatus());
+        subtask3.setStatus(DONE);
+        taskManager.updateSubtask(subtask3);
+        Assertions.assertEquals(DONE, epic1.getStatus());
+        taskManager.deleteSubtaskById(subtask1.getId());
+        Assertions.assertEquals(DONE, epic1.getStatus());
+        taskManager.deleteAllSubtasks();
+        Assertions.assertEquals(NEW, epic1.getStatus());
+
+        Subtask subtask4 = new Subtask("subtask4", "subtask description4", epic1.getId(), Status.DONE);
+        taskManager.addSubtask(subtask4);
+        Assertions.assertEquals(DONE, epic1.getStatus());
+    }
+
+    @Test
+    void updateEpicKeepsSubtasks() {
+        Epic epic1 = new Epic("epic1", "epic description1");
+        taskManager.addEpic(epic1);
+        Subtask subtask1 = new Subtask("subtask1", "subtask description1", epic1.getId(), Status.DONE);
+        taskManager.addSubtask(subtask1);
+        Epic epicUpdate = new Epic("epicUp", "epic descriptionUp", Status.NEW);
+        epicUpdate.setId(epic1.getId());
+        taskManager.updateEpic(epicUpdate);
+
+        Epic updatedEpic = (Epic) taskManager.getEpicById(epic1.getId());
+        Assertions.assertEquals("epicUp", updatedEpic.getName());
+        Assertions.assertEquals("epic descriptionUp", updatedEpic.getDescription());
+        Assertions.assertEquals(DONE, updatedEpic.getStatus());
+        Assertions.assertEquals(List.of(subtask1), taskManager.getEpicSubtasksById(epic1.getId()));
+    }
+
     @Test
     void taskEndTimeCalculation() {
         ZonedDateTime dateTime = ZonedDateTime.of(2024, 2, 28, 23, 20, 0, 0, ZoneOffset.UTC);
@@ -77,6 +121,49 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         Assertions.assertEquals(Duration.ofMinutes(205), epic.getDuration());
     }
 
+    @Test
+    void epicTimeRecalculatedOnSubtaskUpdateAndDelete() {
+        ZonedDateTime dateTime = ZonedDateTime.of(2024, 2, 28, 23, 20, 0, 0, ZoneOffset.UTC);
+        Epic epic = new Epic("epic1", "task description");
+        taskManager.addEpic(epic);
+        Subtask subtask1 = new Subtask("subtask1", "task description 1", epic.getId(),
+                Status.NEW, Duration.ofMinutes(10), dateTime);
+        Subtask subtask2 = new Subtask("subtask2", "task description 2", epic.getId(),
+                Status.NEW, Duration.ofMinutes(20), dateTime.plusHours(1));
+        taskManager.addSubtask(subtask1);
+        taskManager.addSubtask(subtask2);
+
+        taskManager.updateSubtask(new Subtask(subtask2.getId(), "subtask2", "task description 2", epic.getId(),
+                Status.NEW, Duration.ofMinutes(30), dateTime.plusHours(2)));
+        Assertions.assertEquals(dateTime, epic.getStartTime());
+        Assertions.assertEquals(dateTime.plusHours(2).plusMinutes(30), epic.getEndTime());
+        Assertions.assertEquals(Duration.ofMinutes(150), epic.getDuration());
+
+        taskManager.deleteSubtaskById(subtask1.getId());
+        Assertions.assertEquals(dateTime.plusHours(2), epic.getStartTime());
+        Assertions.assertEquals(Duration.ofMinutes(30), epic.getDuration());
+
+        taskManager.updateSubtask(new Subtask(subtask2.getId(), "subtask2", "task description 2", epic.getId(),
+                Status.NEW));
+        Assertions.assertNull(epic.getStartTime());
+        Assertions.assertNull(epic.getEndTime());
+        Assertions.assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
+    @Test
+    void epicTimeResetOnDeleteAllSubtasks() {
+        ZonedDateTime dateTime = ZonedDateTime.of(2024, 2, 28, 23, 20, 0, 0, ZoneOffset.UTC);
+        Epic epic = new Epic("epic1", "task description");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("subtask1", "task description 1", epic.getId(),
+                Status.NEW, Duration.ofMinutes(10), dateTime));
+
+        taskManager.deleteAllSubtasks();
+        Assertions.assertNull(epic.getStartTime());
+        Assertions.assertNull(epic.getEndTime());
+        Assertions.assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
     @Test
     void tasksPrioritizationSorting() {
         Task task1 = new Task("task1", "task description", Status.NEW, Duration.ofMinutes(30),
@@ -117,6 +204,57 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         Assertions.assertThrows(ValidationException.class, () -> taskManager.addTask(task3));
     }
 
+    @Test
+    void tasksInterceptionWithLongTask() {
+        //5:00 -> 8:00
+        Task task1 = new Task("task1", "task description", Status.NEW, Duration.ofMinutes(180),
+                ZonedDateTime.of(2024, 3, 10, 5, 0, 0, 0, ZoneOffset.UTC));
+        //8:00 -> 8:00
+        Task task2 = new Task("task2", "task description", Status.NEW, Duration.ofMinutes(0),
+                ZonedDateTime.of(2024, 3, 10, 8, 0, 0, 0, ZoneOffset.UTC));
+        //9:00 -> 9:30
+        Task task3 = new Task("task3", "task description", Status.NEW, Duration.ofMinutes(30),
+                ZonedDateTime.of(2024, 3, 10, 9, 0, 0, 0, ZoneOffset.UTC));
+        //6:00 -> 6:30
+        Task task4 = new Task("task4", "task description", Status.NEW, Duration.ofMinutes(30),
+                ZonedDateTime.of(2024, 3, 10, 6, 0, 0, 0, ZoneOffset.UTC));
+        //8:00 -> 9:00
+        Task task5 = new Task("task5", "task description", Status.NEW, Duration.ofMinutes(60),
+                ZonedDateTime.of(2024, 3, 10, 8, 0, 0, 0, ZoneOffset.UTC));
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+        taskManager.addTask(task3);
+        Assertions.assertThrows(ValidationException.class, () -> taskManager.addTask(task4));
+        taskManager.addTask(task5);
+        Assertions.assertEquals(List.of(task1, task2, task5, task3), taskManager.getPrioritisedTasks());
+    }
+
+    @Test
+    void updateTaskSameTime() {
+        ZonedDateTime dateTime = ZonedDateTime.of(2024, 3, 10, 5, 0, 0, 0, ZoneOffset.UTC);
+        Task task1 = new Task("task1", "task description1", Status.NEW, Duration.ofMinutes(30), dateTime);
+        Task taskUpdate = new Task("taskUp", "task descriptionUp", Status.DONE, Duration.ofMinutes(30), dateTime);
+        taskManager.addTask(task1);
+        taskUpdate.setId(task1.getId());
+        taskManager.updateTask(taskUpdate);
+        Assertions.assertEquals(List.of(taskUpdate), taskManager.getPrioritisedTasks());
+    }
+
+    @Test
+    void updateTaskInterceptionKeepsOldTask() {
+        Task task1 = new Task("task1", "task description1", Status.NEW, Duration.ofMinutes(30),
+                ZonedDateTime.of(2024, 3, 10, 5, 0, 0, 0, ZoneOffset.UTC));
+        Task task2 = new Task("task2", "task description2", Status.NEW, Duration.ofMinutes(30),
+                ZonedDateTime.of(2024, 3, 10, 6, 0, 0, 0, ZoneOffset.UTC));
+        Task taskUpdate = new Task("taskUp", "task descriptionUp", Status.NEW, Duration.ofMinutes(30),
+                ZonedDateTime.of(2024, 3, 10, 5, 10, 0, 0, ZoneOffset.UTC));
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+        taskUpdate.setId(task2.getId());
+        Assertions.assertThrows(ValidationException.class, () -> taskManager.updateTask(taskUpdate));
+        Assertions.assertEquals(List.of(task1, task2), taskManager.getPrioritisedTasks());
+    }
+
     @Test
     void updateTaskNoTimeWithTime() {
         Task task0 = new Task("task0", "task description0", Status.NEW, Duration.ofMinutes(5), ZonedDateTime.now());
@@ -0,0 +1,44 @@
+package service;
+
+import com.yandex.app.enums.Endpoint;
+import com.yandex.app.http.handler.Router;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RouterTest {
+
+    @Test
+    void routesAsSplitPathDid() {
+        assertRoute(Endpoint.GET_ALL, Router.NO_ID, "/tasks", "GET");
+        assertRoute(Endpoint.GET_ALL, Router.NO_ID, "/tasks/", "GET");
+        assertRoute(Endpoint.GET, 15, "/tasks/15", "GET");
+        assertRoute(Endpoint.GET, 15, "/tasks/15//", "GET");
+        assertRoute(Endpoint.GET_EPIC_SUBTASKS, 7, "/epics/7/subtasks", "GET");
+        assertRoute(Endpoint.GET_EPIC_SUBTASKS, 7, "/epics/7/subtasks/", "GET");
+        assertRoute(Endpoint.POST, Router.NO_ID, "/tasks", "POST");
+        assertRoute(Endpoint.DELETE, 3, "/subtasks/3", "DELETE");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks", "PUT");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/epics/7/subtask", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/epics/7/subtasks/1", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks//7", "GET");
+    }
+
+    //parseDouble accepted these and Integer.parseInt failed on them later
+    @Test
+    void idHasToBeNonNegativeInt() {
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks/1.5", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks/1e3", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks/abc", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks/-1", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks/2147483648", "GET");
+        assertRoute(Endpoint.GET, Integer.MAX_VALUE, "/tasks/2147483647", "GET");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks/NaN", "DELETE");
+        assertRoute(Endpoint.UNKNOWN, Router.NO_ID, "/tasks", "DELETE");
+    }
+
+    private void assertRoute(Endpoint endpoint, int id, String path, String method) {
+        long route = Router.route(path, method);
+        Assertions.assertEquals(endpoint, Router.endpoint(route), method + " " + path);
+        Assertions.assertEquals(id, Router.id(route), method + " " + path);
+    }
+}
@@ -1,15 +1,29 @@
 package service;
 
+import com.yandex.app.enums.Status;
+import com.yandex.app.enums.Type;
 import com.yandex.app.exception.NotFoundException;
+import com.yandex.app.exception.ValidationException;
 import com.yandex.app.model.Epic;
 import com.yandex.app.model.Subtask;
 import com.yandex.app.model.Task;
 import com.yandex.app.service.TaskManager;
+import com.yandex.app.service.TaskPage;
+import com.yandex.app.service.TaskQuery;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 abstract class TaskManagerTest<T extends TaskManager> {
     protected T taskManager;
@@ -170,4 +184,169 @@ abstract class TaskManagerTest<T extends TaskManager> {
         Assertions.assertEquals(0, taskManager.getAllEpics().size());
         Assertions.assertEquals(0, taskManager.getAllSubtasks().size());
     }
+
+    //every filter combination paged through with small limit gives the same tasks as filtering all of them
+    @Test
+    void findMatchesFilteredAllTasks() {
+        ZonedDateTime base = ZonedDateTime.of(2024, 3, 10, 9, 0, 0, 0, ZoneId.of("Europe/Moscow"));
+        Random random = new Random(7);
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Epic epic = new Epic("epic" + i, "description");
+            taskManager.addEpic(epic);
+            epics.add(epic);
+        }
+        Status[] statuses = Status.values();
+        for (int i = 0; i < 60; i++) {
+            //every task gets its own hour, shuffled against ids, so none of them intercept
+            ZonedDateTime start = random.nextInt(3) == 0 ? null : base.plusHours(i * 37 % 60 * 10L + 1);
+            taskManager.addTask(new Task(0, "task" + i, "description", statuses[random.nextInt(3)],
+                    Duration.ofMinutes(30), start));
+            start = random.nextInt(3) == 0 ? null : base.plusHours(i * 37 % 60 * 10L + 2);
+            taskManager.addSubtask(new Subtask("subtask" + i, "description", epics.get(random.nextInt(3)).getId(),
+                    statuses[random.nextInt(3)], Duration.ofMinutes(30), start));
+        }
+        for (Task task : taskManager.getAllTasks()) {
+            if (random.nextBoolean()) {
+                ZonedDateTime start = random.nextBoolean() ? null : base.plusHours(task.getId() * 37 % 200 * 10L + 3);
+                taskManager.updateTask(new Task(task.getId(), "updated", "description", statuses[random.nextInt(3)],
+                        Duration.ofMinutes(30), start));
+            } else if (random.nextInt(4) == 0) {
+                taskManager.deleteTaskById(task.getId());
+            }
+        }
+        for (Subtask subtask : taskManager.getAllSubtasks()) {
+            if (random.nextBoolean()) {
+                //changed in place before update
+                subtask.setStatus(statuses[random.nextInt(3)]);
+                taskManager.updateSubtask(subtask);
+            } else if (random.nextInt(4) == 0) {
+                taskManager.deleteSubtaskById(subtask.getId());
+            }
+        }
+        ZonedDateTime from = base.plusHours(150);
+        ZonedDateTime to = base.plusHours(1_400);
+        for (Status status : Arrays.asList(null, Status.NEW, Status.IN_PROGRESS, Status.DONE)) {
+            for (ZonedDateTime[] range : List.of(new ZonedDateTime[]{null, null}, new ZonedDateTime[]{from, null},
+                    new ZonedDateTime[]{null, to}, new ZonedDateTime[]{from, to})) {
+                Assertions.assertEquals(filter(taskManager.getAllTasks().stream(), status, range),
+                        findAll(taskManager::findTasks, status, null, range));
+                Assertions.assertEquals(filter(taskManager.getAllEpics().stream(), status, range),
+                        findAll(taskManager::findEpics, status, null, range));
+                Assertions.assertEquals(filter(taskManager.getAllSubtasks().stream(), status, range),
+                        findAll(taskManager::findSubtasks, status, null, range));
+                for (Epic epic : epics) {
+                    Assertions.assertEquals(filter(taskManager.getEpicSubtasksById(epic.getId()).stream(), status, range),
+                            findAll(taskManager::findSubtasks, status, epic.getId(), range));
+                }
+            }
+        }
+    }
+
+    @Test
+    void findRejectsBadQuery() {
+        taskManager.addTask(new Task("task1", "task description1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> taskManager.findTasks(new TaskQuery(null, null, null, null, "not a cursor", 10)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> taskManager.findTasks(new TaskQuery(null, 1, null, null, null, 10)));
+        Assertions.assertThrows(NotFoundException.class,
+                () -> taskManager.findSubtasks(new TaskQuery(null, 99, null, null, null, 10)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TaskQuery(null, null, null, null, null, 0));
+    }
+
+    private <X extends Task> List<X> findAll(Function<TaskQuery, TaskPage<X>> find, Status status, Integer epicId,
+                                             ZonedDateTime[] range) {
+        List<X> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            TaskPage<X> page = find.apply(new TaskQuery(status, epicId, range[0], range[1], cursor, 4));
+            Assertions.assertTrue(page.items().size() <= 4);
+            found.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return found;
+    }
+
+    private <X extends Task> List<X> filter(Stream<X> tasks, Status status, ZonedDateTime[] range) {
+        Stream<X> filtered = tasks.filter(task -> status == null || task.getStatus() == status);
+        if (range[0] == null && range[1] == null) {
+            return filtered.sorted(Comparator.comparing(Task::getId)).toList();
+        }
+        return filtered.filter(task -> task.getStartTime() != null)
+                .filter(task -> range[0] == null || !task.getStartTime().isBefore(range[0]))
+                .filter(task -> range[1] == null || task.getStartTime().isBefore(range[1]))
+                .sorted(Comparator.comparing(Task::getStartTime).thenComparing(Task::getId))
+                .toList();
+    }
+
+    @Test
+    void versionsGrowWithChanges() {
+        Epic epic = new Epic("epic", "epic description");
+        taskManager.addEpic(epic);
+        long epicsVersion = taskManager.getVersion(Type.EPIC);
+        long epicVersion = taskManager.getVersion(epic.getId());
+        Assertions.assertTrue(epicsVersion > 0);
+        Assertions.assertEquals(0, taskManager.getVersion(Type.TASK));
+
+        Subtask subtask = new Subtask("subtask", "description", epic.getId(), Status.NEW);
+        taskManager.addSubtask(subtask);
+        long subtasksVersion = taskManager.getVersion(Type.SUBTASK);
+        Assertions.assertTrue(subtasksVersion > epicsVersion);
+        //epic status and subtask ids come from subtasks
+        Assertions.assertTrue(taskManager.getVersion(Type.EPIC) > epicsVersion);
+        Assertions.assertTrue(taskManager.getVersion(epic.getId()) > epicVersion);
+
+        Task task = taskManager.addTask(new Task("task", "description"));
+        long tasksVersion = taskManager.getVersion(Type.TASK);
+        Assertions.assertEquals(subtasksVersion, taskManager.getVersion(Type.SUBTASK));
+        taskManager.getTaskById(task.getId());
+        Assertions.assertEquals(tasksVersion, taskManager.getVersion(Type.TASK));
+        Assertions.assertThrows(NotFoundException.class, () -> taskManager.updateTask(new Task(99, "task", "description", Status.DONE)));
+        Assertions.assertEquals(tasksVersion, taskManager.getVersion(Type.TASK));
+        taskManager.updateTask(new Task(task.getId(), "task", "description", Status.DONE));
+        Assertions.assertTrue(taskManager.getVersion(Type.TASK) > tasksVersion);
+        Assertions.assertEquals(taskManager.getVersion(Type.TASK), taskManager.getVersion(task.getId()));
+
+        epicsVersion = taskManager.getVersion(Type.EPIC);
+        taskManager.deleteAllEpics();
+        Assertions.assertTrue(taskManager.getVersion(Type.EPIC) > epicsVersion);
+        Assertions.assertTrue(taskManager.getVersion(Type.SUBTASK) > epicsVersion);
+        Assertions.assertEquals(0, taskManager.getVersion(subtask.getId()));
+    }
+
+    //old time of subtask changed in place before update is gone from it, epic must not keep it
+    @Test
+    void epicTimeFollowsSubtaskChangedInPlace() {
+        ZonedDateTime start = ZonedDateTime.of(2024, 3, 10, 9, 0, 0, 0, ZoneId.of("Europe/Moscow"));
+        Epic epic = new Epic("epic", "description");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("subtask", "description", epic.getId(), Status.NEW,
+                Duration.ofMinutes(30), start);
+        taskManager.addSubtask(subtask);
+
+        subtask.setStartTime(start.plusHours(2));
+        subtask.setDuration(Duration.ofMinutes(10));
+        taskManager.updateSubtask(subtask);
+        Task updated = taskManager.getEpicById(epic.getId());
+        Assertions.assertEquals(start.plusHours(2), updated.getStartTime());
+        Assertions.assertEquals(start.plusHours(2).plusMinutes(10), updated.getEndTime());
+        Assertions.assertEquals(Duration.ofMinutes(10), updated.getDuration());
+
+        subtask.setStartTime(null);
+        taskManager.updateSubtask(subtask);
+        Assertions.assertNull(taskManager.getEpicById(epic.getId()).getStartTime());
+    }
+
+    //same instant in other zone: zero-duration task at the start of a longer one must not hide it from the check
+    @Test
+    void interceptionIsFoundWithMixedZones() {
+        ZonedDateTime start = ZonedDateTime.of(2024, 3, 10, 9, 0, 0, 0, ZoneId.of("UTC"));
+        taskManager.addTask(new Task(0, "long", "description", Status.NEW, Duration.ofHours(1), start));
+        taskManager.addTask(new Task(0, "zero", "description", Status.NEW, Duration.ZERO,
+                start.withZoneSameInstant(ZoneId.of("Europe/Moscow"))));
+        Assertions.assertThrows(ValidationException.class, () -> taskManager.addTask(new Task(0, "new", "description",
+                Status.NEW, Duration.ofMinutes(90), start.plusMinutes(30))));
+        Assertions.assertEquals(2, taskManager.getPrioritisedTasks().size());
+    }
 }
@@ -0,0 +1,63 @@
+package utility;
+
+import com.yandex.app.utility.IntHashSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+class IntHashSetTest {
+    @Test
+    void addRemoveContains() {
+        IntHashSet set = new IntHashSet();
+        Assertions.assertTrue(set.isEmpty());
+        Assertions.assertTrue(set.add(1));
+        Assertions.assertFalse(set.add(1));
+        Assertions.assertTrue(set.add(0));
+        Assertions.assertTrue(set.add(-5));
+        Assertions.assertEquals(3, set.size());
+        Assertions.assertTrue(set.contains(0));
+        Assertions.assertTrue(set.remove(0));
+        Assertions.assertFalse(set.remove(0));
+        Assertions.assertFalse(set.contains(0));
+        Assertions.assertEquals("[-5, 1]", set.toString());
+    }
+
+    @Test
+    void clearEmptiesSet() {
+        IntHashSet set = new IntHashSet();
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        set.clear();
+        Assertions.assertEquals(0, set.size());
+        Assertions.assertFalse(set.contains(50));
+        Assertions.assertEquals(0, set.toArray().length);
+    }
+
+    //removals shift probe chains back, so every kept value has to stay reachable
+    @Test
+    void randomOperationsMatchHashSet() {
+        Random random = new Random(42);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(2_000) - 100;
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                Assertions.assertEquals(expected.add(value), set.add(value));
+            }
+            Assertions.assertEquals(expected.size(), set.size());
+        }
+        for (int value = -100; value < 1_900; value++) {
+            Assertions.assertEquals(expected.contains(value), set.contains(value));
+        }
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        Assertions.assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), values);
+    }
+}
@@ -0,0 +1,51 @@
+package utility;
+
+import com.yandex.app.utility.IntLongMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class IntLongMapTest {
+    @Test
+    void putGetRemove() {
+        IntLongMap map = new IntLongMap();
+        Assertions.assertEquals(0, map.put(1, 10));
+        Assertions.assertEquals(10, map.put(1, 11));
+        Assertions.assertEquals(0, map.put(0, Long.MIN_VALUE));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals(11, map.get(1));
+        Assertions.assertEquals(Long.MIN_VALUE, map.remove(0));
+        Assertions.assertEquals(0, map.remove(0));
+        Assertions.assertEquals(0, map.get(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put(-1, 1));
+        //0 is no value
+        Assertions.assertEquals(11, map.put(1, 0));
+        Assertions.assertEquals(0, map.size());
+    }
+
+    //pages are released when emptied and allocated again on next put
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        IntLongMap map = new IntLongMap();
+        Map<Integer, Long> expected = new HashMap<>();
+        for (long i = 1; i <= 100_000; i++) {
+            int key = random.nextInt(8) * 100_000 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals((long) expected.getOrDefault(key, 0L), map.remove(key));
+                expected.remove(key);
+            } else {
+                Assertions.assertEquals((long) expected.getOrDefault(key, 0L), map.put(key, i));
+                expected.put(key, i);
+            }
+            Assertions.assertEquals(expected.size(), map.size());
+        }
+        expected.forEach((key, value) -> Assertions.assertEquals((long) value, map.get(key)));
+        map.clear();
+        Assertions.assertEquals(0, map.size());
+        expected.forEach((key, value) -> Assertions.assertEquals(0, map.get(key)));
+    }
+}
@@ -0,0 +1,78 @@
+package utility;
+
+import com.yandex.app.utility.IntObjectMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class IntObjectMapTest {
+    @Test
+    void putGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Assertions.assertNull(map.put(1, "one"));
+        Assertions.assertEquals("one", map.put(1, "first"));
+        Assertions.assertNull(map.put(0, "zero"));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals("first", map.get(1));
+        Assertions.assertEquals("zero", map.remove(0));
+        Assertions.assertNull(map.remove(0));
+        Assertions.assertFalse(map.containsKey(0));
+        Assertions.assertEquals("[1]", map.keySet().toString());
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(2, null));
+    }
+
+    @Test
+    void negativeKeys() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Assertions.assertNull(map.get(-1));
+        Assertions.assertNull(map.remove(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put(-1, "negative"));
+    }
+
+    @Test
+    void keysIteratedInAscendingOrder() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int i = 5_000; i > 0; i -= 3) {
+            map.put(i, i);
+        }
+        map.remove(2_000);
+        List<Integer> values = new ArrayList<>(map.values());
+        Assertions.assertEquals(map.size(), values.size());
+        for (int i = 1; i < values.size(); i++) {
+            Assertions.assertTrue(values.get(i - 1) < values.get(i));
+        }
+        int[] keys = map.keySet().toArray();
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertEquals(values.get(i), map.get(keys[i]));
+        }
+    }
+
+    //pages are released when emptied and allocated again on next put
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(8) * 100_000 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            Assertions.assertEquals(expected.size(), map.size());
+        }
+        expected.forEach((key, value) -> Assertions.assertEquals(value, map.get(key)));
+        Assertions.assertEquals(expected.size(), map.values().size());
+        Assertions.assertEquals(expected.size(), map.keySet().toArray().length);
+        map.keySet().forEach(key -> Assertions.assertTrue(expected.containsKey(key)));
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertFalse(map.values().iterator().hasNext());
+    }
+}
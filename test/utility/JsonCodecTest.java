@@ -0,0 +1,114 @@
+package utility;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.yandex.app.enums.Status;
+import com.yandex.app.http.JsonCodec;
+import com.yandex.app.http.adapter.DurationTypeAdapter;
+import com.yandex.app.http.adapter.LocalTimeTypeAdapter;
+import com.yandex.app.model.Epic;
+import com.yandex.app.model.Subtask;
+import com.yandex.app.model.Task;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+class JsonCodecTest {
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 3, 10, 9, 0, 0, 0, ZoneId.of("Europe/Moscow"));
+    private final Gson codec = JsonCodec.getGson();
+    //what handlers used before, tasks converted by reflection
+    private final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .registerTypeAdapter(ZonedDateTime.class, new LocalTimeTypeAdapter())
+            .create();
+
+    @Test
+    void jsonIsSameAsReflective() {
+        Epic epic = new Epic(1, "epic", "with \"quotes\" & <tags>", Status.IN_PROGRESS);
+        epic.addSubtaskId(3);
+        epic.addSubtaskId(2);
+        epic.calculateTime(START, START.plusHours(5));
+        List<Task> tasks = List.of(
+                new Task(4, "task", "description", Status.NEW, Duration.ofMinutes(30), START),
+                new Task(5, "task", null, Status.DONE, null, null),
+                epic,
+                new Epic("empty epic", "no subtasks"),
+                new Subtask(2, "subtask", "описание", 1, Status.DONE, Duration.ofMinutes(90), START.plusHours(1)),
+                new Subtask(3, "subtask", "description", 1, Status.NEW));
+        for (Task task : tasks) {
+            Assertions.assertEquals(reflective.toJson(task), codec.toJson(task));
+        }
+        Assertions.assertEquals(reflective.toJson(tasks), codec.toJson(tasks));
+    }
+
+    @Test
+    void readsWhatItWrites() {
+        Epic epic = new Epic(1, "epic", "description", Status.IN_PROGRESS);
+        epic.addSubtaskId(2);
+        epic.calculateTime(START, START.plusHours(5));
+        Epic epicRead = codec.fromJson(codec.toJson(epic), Epic.class);
+        Assertions.assertEquals(epic, epicRead);
+        Assertions.assertEquals(epic.getEndTime(), epicRead.getEndTime());
+        Assertions.assertEquals(epic.getDuration(), epicRead.getDuration());
+        Assertions.assertArrayEquals(new int[]{2}, epicRead.getSubtaskIds().toArray());
+
+        Subtask subtask = new Subtask(2, "subtask", "description", 1, Status.DONE, Duration.ofMinutes(90), START);
+        Subtask subtaskRead = codec.fromJson(codec.toJson(subtask), Subtask.class);
+        Assertions.assertEquals(subtask, subtaskRead);
+        Assertions.assertEquals(1, subtaskRead.getEpicId());
+        Assertions.assertEquals(START, subtaskRead.getStartTime());
+        Assertions.assertEquals(Duration.ofMinutes(90), subtaskRead.getDuration());
+    }
+
+    //list larger than writer buffer, multibyte chars and surrogate pairs fall on buffer boundaries
+    @Test
+    void writeListGivesSameBytesAsToJson() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            tasks.add(new Task(i, "задача " + i + " \uD83D\uDE80", "описание", Status.NEW, Duration.ofMinutes(i),
+                    START.plusMinutes(i)));
+            tasks.add(new Subtask(i, "subtask", "description", 1, Status.DONE));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonCodec.writeList(tasks, out);
+        Assertions.assertTrue(Arrays.equals(reflective.toJson(tasks).getBytes(StandardCharsets.UTF_8), out.toByteArray()));
+    }
+
+    @Test
+    void timeIsWrittenAsIsoZonedDateTime() {
+        List<ZoneId> zones = List.of(ZoneId.of("Europe/Moscow"), ZoneId.of("UTC"), ZoneOffset.UTC,
+                ZoneOffset.ofHoursMinutesSeconds(-3, -30, -15), ZoneId.of("America/St_Johns"));
+        int[] nanos = {0, 1, 500_000_000, 123_456_789, 120_000, 999_999_999};
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            ZonedDateTime time = ZonedDateTime.of(random.nextInt(12_000) - 1_000, 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    nanos[i % nanos.length], zones.get(i % zones.size()));
+            Assertions.assertEquals(codec.toJson(time.format(DateTimeFormatter.ISO_ZONED_DATE_TIME)), codec.toJson(time));
+        }
+    }
+
+    @Test
+    void missingFieldsKeepDefaultsAndUnknownAreSkipped() {
+        Task task = codec.fromJson("{\"name\":\"task\",\"startTime\":null,\"extra\":{\"a\":[1,2]}}", Task.class);
+        Assertions.assertEquals("task", task.getName());
+        Assertions.assertEquals(0, task.getId());
+        Assertions.assertEquals(Status.NEW, task.getStatus());
+        Assertions.assertEquals(Duration.ZERO, task.getDuration());
+        Assertions.assertNull(task.getStartTime());
+        Epic epic = codec.fromJson("{\"name\":\"epic\"}", Epic.class);
+        Assertions.assertEquals(0, epic.getSubtaskIds().size());
+    }
+}